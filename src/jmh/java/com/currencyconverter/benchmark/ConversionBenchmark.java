@@ -0,0 +1,72 @@
+package com.currencyconverter.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.currencyconverter.model.ConversionResult;
+import com.currencyconverter.service.CurrencyConversionService;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.HttpClientSettings;
+
+// convertCurrency avec un cache déjà chaud: mesure du chemin critique de /api/convert
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConversionBenchmark {
+    
+    @Param({"cross", "direct"})
+    public String rateMode;
+    
+    private FakeRateProvider provider;
+    private ExchangeRateService exchangeRateService;
+    private CurrencyConversionService conversionService;
+    private BigDecimal amount;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.rates.mode", rateMode);
+        
+        provider = new FakeRateProvider();
+        exchangeRateService = new ExchangeRateService(HttpClientSettings.defaults(), provider.getUrl(), provider.getUrl());
+        conversionService = new CurrencyConversionService(exchangeRateService);
+        amount = new BigDecimal("1234.56");
+        
+        // Remplir le cache avant les mesures
+        conversionService.convertCurrency("EUR", "JPY", amount);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        conversionService.close();
+        exchangeRateService.close();
+        provider.close();
+    }
+    
+    @Benchmark
+    public ConversionResult convertWarmCache() throws IOException {
+        return conversionService.convertCurrency("EUR", "JPY", amount);
+    }
+    
+    @Benchmark
+    public ConversionResult convertFromParsedAmount() throws IOException {
+        return conversionService.convertCurrency("EUR", "JPY", new BigDecimal("1234.56"));
+    }
+    
+    @Benchmark
+    public ConversionResult convertFromAmountText() throws IOException {
+        return conversionService.convertCurrency("EUR", "JPY", "1234.56");
+    }
+}
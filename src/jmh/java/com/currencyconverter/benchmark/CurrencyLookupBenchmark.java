@@ -0,0 +1,33 @@
+package com.currencyconverter.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.currencyconverter.model.Currency;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CurrencyLookupBenchmark {
+    
+    // Premier, dernier et code en minuscules (chemin insensible à la casse)
+    @Param({"USD", "XOF", "eur"})
+    public String code;
+    
+    @Benchmark
+    public Currency fromCode() {
+        return Currency.fromCode(code);
+    }
+    
+    @Benchmark
+    public Currency lookup() {
+        return Currency.lookup(code);
+    }
+}
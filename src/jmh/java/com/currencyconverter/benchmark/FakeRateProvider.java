@@ -0,0 +1,87 @@
+package com.currencyconverter.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Fournisseur de taux local: remplace les API publiques pendant les mesures
+public class FakeRateProvider implements AutoCloseable {
+    private static final Map<String, BigDecimal> USD_RATES = new LinkedHashMap<>();
+    
+    static {
+        USD_RATES.put("USD", BigDecimal.ONE);
+        USD_RATES.put("EUR", new BigDecimal("0.921345"));
+        USD_RATES.put("GBP", new BigDecimal("0.789012"));
+        USD_RATES.put("JPY", new BigDecimal("151.2345"));
+        USD_RATES.put("INR", new BigDecimal("83.1234"));
+        USD_RATES.put("CAD", new BigDecimal("1.3612"));
+        USD_RATES.put("AUD", new BigDecimal("1.5234"));
+        USD_RATES.put("CHF", new BigDecimal("0.8812"));
+        USD_RATES.put("CNY", new BigDecimal("7.2345"));
+        USD_RATES.put("SEK", new BigDecimal("10.4567"));
+        USD_RATES.put("NOK", new BigDecimal("10.6789"));
+        USD_RATES.put("MXN", new BigDecimal("17.0123"));
+        USD_RATES.put("SGD", new BigDecimal("1.3456"));
+        USD_RATES.put("HKD", new BigDecimal("7.8123"));
+        USD_RATES.put("NZD", new BigDecimal("1.6345"));
+        USD_RATES.put("XOF", new BigDecimal("604.3456"));
+    }
+    
+    private final HttpServer server;
+    private final AtomicLong requests = new AtomicLong();
+    
+    public FakeRateProvider() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+    
+    // Préfixe compatible avec les URL des fournisseurs ("...?base=" + devise)
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/latest?base=";
+    }
+    
+    public long getRequestCount() {
+        return requests.get();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String query = exchange.getRequestURI().getQuery();
+        String base = query != null && query.startsWith("base=") ? query.substring(5) : "USD";
+        BigDecimal baseRate = USD_RATES.getOrDefault(base, BigDecimal.ONE);
+        
+        StringBuilder json = new StringBuilder("{\"base\":\"").append(base).append("\",\"rates\":{");
+        boolean first = true;
+        for (Map.Entry<String, BigDecimal> rate : USD_RATES.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(rate.getKey()).append("\":")
+                .append(rate.getValue().divide(baseRate, MathContext.DECIMAL64).toPlainString());
+        }
+        json.append("}}");
+        
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.currencyconverter.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.currencyconverter.model.RateTable;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.HttpClientSettings;
+
+// Lectures concurrentes du cache de taux par tous les cœurs disponibles
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class RateCacheContentionBenchmark {
+    
+    @Param({"cross", "direct"})
+    public String rateMode;
+    
+    private FakeRateProvider provider;
+    private ExchangeRateService exchangeRateService;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.rates.mode", rateMode);
+        
+        provider = new FakeRateProvider();
+        exchangeRateService = new ExchangeRateService(HttpClientSettings.defaults(), provider.getUrl(), provider.getUrl());
+        exchangeRateService.getExchangeRate("GBP", "CHF");
+        exchangeRateService.getExchangeRates("USD");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        exchangeRateService.close();
+        if (provider.getRequestCount() > 2) {
+            throw new IllegalStateException("Le cache a rappelé le fournisseur: " + provider.getRequestCount());
+        }
+        provider.close();
+    }
+    
+    @Benchmark
+    public BigDecimal getExchangeRate() throws IOException {
+        return exchangeRateService.getExchangeRate("GBP", "CHF");
+    }
+    
+    @Benchmark
+    public RateTable getExchangeRates() throws IOException {
+        return exchangeRateService.getExchangeRates("USD");
+    }
+}
@@ -0,0 +1,70 @@
+package com.currencyconverter.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.currencyconverter.controller.ConversionJsonWriter;
+import com.currencyconverter.controller.LocalDateTimeAdapter;
+import com.currencyconverter.model.ConversionResult;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+// Sérialisation d'une réponse /api/convert: Gson via un Writer (ancien chemin) contre ConversionJsonWriter.
+// Lancer avec -prof gc pour comparer les allocations par opération.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+    
+    private Gson gson;
+    private ConversionJsonWriter jsonWriter;
+    private ConversionResult result;
+    private OutputStream out;
+    
+    @Setup
+    public void setUp() {
+        gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .create();
+        jsonWriter = new ConversionJsonWriter();
+        result = new ConversionResult("EUR", "JPY", new BigDecimal("1234.56"),
+                new BigDecimal("202628.0493"), new BigDecimal("164.142227528"));
+        out = OutputStream.nullOutputStream();
+    }
+    
+    @Benchmark
+    public String gsonConversionResult() {
+        return gson.toJson(result);
+    }
+    
+    @Benchmark
+    public void gsonConversionResultToStream() throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(gson.toJson(result));
+        writer.flush();
+    }
+    
+    @Benchmark
+    public void streamingConversionResult() throws IOException {
+        jsonWriter.writeConversionResult(result).writeTo(out);
+    }
+    
+    @Benchmark
+    public void streamingError() throws IOException {
+        jsonWriter.writeError(400, "Format de montant invalide: 12,5", System.currentTimeMillis()).writeTo(out);
+    }
+}
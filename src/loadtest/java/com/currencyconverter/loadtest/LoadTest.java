@@ -0,0 +1,359 @@
+package com.currencyconverter.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.currencyconverter.metrics.LatencyHistogram;
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.util.ConfigUtils;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Test de charge en boucle ouverte contre une instance déployée (par défaut celle démarrée par
+ * le profil Maven {@code loadtest}).
+ *
+ * Les requêtes partent à cadence fixe, chacune sur son propre thread virtuel, quel que soit le
+ * temps de réponse du serveur: la latence est mesurée depuis l'instant d'envoi prévu, si bien
+ * qu'un serveur qui ralentit n'abaisse pas silencieusement la charge (omission coordonnée).
+ * Le programme se termine en erreur si le p99 ou le taux d'erreur dépassent les seuils fixés.
+ */
+public class LoadTest {
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final String[] AMOUNTS = {"1", "10", "100", "250.50", "1000", "12345.67"};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long READY_TIMEOUT_MS = 60000;
+
+    private final String baseUrl;
+    private final int rps;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final double currenciesShare;
+    private final long maxP99Ms;
+    private final double maxErrorRate;
+    private final String resultFile;
+    private final HttpClient client;
+
+    public LoadTest(String baseUrl, int rps, int durationSeconds, int warmupSeconds, double currenciesShare,
+                    long maxP99Ms, double maxErrorRate, String resultFile) {
+        if (rps <= 0 || durationSeconds <= 0) {
+            throw new IllegalArgumentException("Le débit cible et la durée doivent être positifs");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.rps = rps;
+        this.durationSeconds = durationSeconds;
+        this.warmupSeconds = Math.max(0, warmupSeconds);
+        this.currenciesShare = currenciesShare;
+        this.maxP99Ms = maxP99Ms;
+        this.maxErrorRate = maxErrorRate;
+        this.resultFile = resultFile;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public static LoadTest fromSystemProperties() {
+        return new LoadTest(
+                ConfigUtils.getString("loadtest.baseUrl", "http://127.0.0.1:18080/currency-converter"),
+                ConfigUtils.getInt("loadtest.rps", 200),
+                ConfigUtils.getInt("loadtest.durationSeconds", 30),
+                ConfigUtils.getInt("loadtest.warmupSeconds", 5),
+                Double.parseDouble(ConfigUtils.getString("loadtest.currenciesShare", "0.1")),
+                ConfigUtils.getLong("loadtest.maxP99Ms", 250),
+                Double.parseDouble(ConfigUtils.getString("loadtest.maxErrorRate", "0.01")),
+                ConfigUtils.getString("loadtest.resultFile", null));
+    }
+
+    public boolean run() throws IOException, InterruptedException {
+        awaitReady();
+
+        if (warmupSeconds > 0) {
+            System.out.printf("Préchauffage: %d s à %d req/s%n", warmupSeconds, rps);
+            drive(warmupSeconds);
+        }
+
+        System.out.printf("Mesure: %d s à %d req/s sur %s%n", durationSeconds, rps, baseUrl);
+        Map<String, EndpointStats> stats = drive(durationSeconds);
+
+        boolean passed = true;
+        for (EndpointStats endpoint : stats.values()) {
+            endpoint.print();
+        }
+        EndpointStats total = EndpointStats.merge("total", stats.values());
+        total.print();
+
+        double errorRate = total.getErrorRate();
+        long p99Ms = TimeUnit.NANOSECONDS.toMillis(total.getPercentileNanos(0.99));
+        if (p99Ms > maxP99Ms) {
+            System.out.printf("ÉCHEC: p99 de %d ms au-delà du seuil de %d ms%n", p99Ms, maxP99Ms);
+            passed = false;
+        }
+        if (errorRate > maxErrorRate) {
+            System.out.printf("ÉCHEC: taux d'erreur de %.2f %% au-delà du seuil de %.2f %%%n",
+                    errorRate * 100, maxErrorRate * 100);
+            passed = false;
+        }
+        if (passed) {
+            System.out.printf("Seuils respectés (p99 <= %d ms, erreurs <= %.2f %%)%n", maxP99Ms, maxErrorRate * 100);
+        }
+
+        if (resultFile != null) {
+            writeResults(stats, total);
+        }
+        return passed;
+    }
+
+    // Attend que l'application soit prête, comme le ferait un répartiteur de charge (préchauffage terminé)
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + READY_TIMEOUT_MS;
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + "/api/health/ready"))
+                .timeout(Duration.ofSeconds(5)).build();
+        while (true) {
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Pas encore à l'écoute
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Application injoignable: " + baseUrl);
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    private Map<String, EndpointStats> drive(int seconds) throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        stats.put("/api/convert", new EndpointStats("/api/convert", rps * seconds));
+        stats.put("/api/currencies", new EndpointStats("/api/currencies", rps * seconds));
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long total = (long) rps * seconds;
+        long lateStarts = 0;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long intended = start + i * intervalNanos;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else if (wait < -intervalNanos) {
+                    lateStarts++;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                boolean currencies = random.nextDouble() < currenciesShare;
+                EndpointStats endpoint = stats.get(currencies ? "/api/currencies" : "/api/convert");
+                URI uri = URI.create(baseUrl + (currencies ? "/api/currencies" : randomConversion(random)));
+                executor.execute(() -> send(uri, intended, endpoint));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        for (EndpointStats endpoint : stats.values()) {
+            endpoint.elapsedNanos = elapsed;
+        }
+        if (lateStarts > 0) {
+            System.out.printf("Attention: %d requêtes parties en retard (générateur saturé)%n", lateStarts);
+        }
+        return stats;
+    }
+
+    private static String randomConversion(ThreadLocalRandom random) {
+        Currency from = CURRENCIES[random.nextInt(CURRENCIES.length)];
+        Currency to = CURRENCIES[random.nextInt(CURRENCIES.length)];
+        return "/api/convert?amount=" + AMOUNTS[random.nextInt(AMOUNTS.length)]
+                + "&from=" + from.getCode() + "&to=" + to.getCode();
+    }
+
+    private void send(URI uri, long intendedNanos, EndpointStats endpoint) {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = -1;
+        }
+        endpoint.record(System.nanoTime() - intendedNanos, status);
+    }
+
+    private void writeResults(Map<String, EndpointStats> stats, EndpointStats total) throws IOException {
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("targetRps", rps);
+        results.put("durationSeconds", durationSeconds);
+        for (EndpointStats endpoint : stats.values()) {
+            results.put(endpoint.name, endpoint.toMap());
+        }
+        results.put("total", total.toMap());
+        Path file = Path.of(resultFile);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, new GsonBuilder().setPrettyPrinting().create().toJson(results), StandardCharsets.UTF_8);
+        System.out.println("Résultats écrits dans " + file);
+    }
+
+    // Latences exactes (pour les percentiles) et histogramme à seaux du service (pour la distribution)
+    private static final class EndpointStats {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLong sampleCount = new AtomicLong();
+        private long[] samples;
+        private long elapsedNanos;
+        private boolean sorted;
+
+        private EndpointStats(String name, int capacity) {
+            this.name = name;
+            this.samples = new long[capacity];
+        }
+
+        private static EndpointStats merge(String name, Iterable<EndpointStats> parts) {
+            int capacity = 0;
+            for (EndpointStats part : parts) {
+                capacity += (int) part.sampleCount.get();
+            }
+            EndpointStats merged = new EndpointStats(name, capacity);
+            for (EndpointStats part : parts) {
+                for (int i = 0; i < part.sampleCount.get(); i++) {
+                    long nanos = part.samples[i];
+                    merged.samples[(int) merged.sampleCount.getAndIncrement()] = nanos;
+                    merged.histogram.record(nanos);
+                    merged.maxNanos.accumulate(nanos);
+                }
+                part.statuses.forEach((status, count) ->
+                        merged.statuses.computeIfAbsent(status, s -> new LongAdder()).add(count.sum()));
+                merged.elapsedNanos = Math.max(merged.elapsedNanos, part.elapsedNanos);
+            }
+            return merged;
+        }
+
+        private void record(long nanos, int status) {
+            samples[(int) sampleCount.getAndIncrement()] = nanos;
+            histogram.record(nanos);
+            maxNanos.accumulate(nanos);
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        private long getCount() {
+            return sampleCount.get();
+        }
+
+        private long getErrors() {
+            long errors = 0;
+            for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+                if (entry.getKey() < 200 || entry.getKey() >= 400) {
+                    errors += entry.getValue().sum();
+                }
+            }
+            return errors;
+        }
+
+        private double getErrorRate() {
+            return getCount() == 0 ? 0 : (double) getErrors() / getCount();
+        }
+
+        private double getThroughput() {
+            return elapsedNanos == 0 ? 0 : getCount() * 1e9 / elapsedNanos;
+        }
+
+        // Appelé une fois toutes les requêtes terminées: le tableau n'est plus modifié
+        private long getPercentileNanos(double quantile) {
+            int count = (int) getCount();
+            if (count == 0) {
+                return 0;
+            }
+            if (samples.length != count || !sorted) {
+                samples = Arrays.copyOf(samples, count);
+                Arrays.sort(samples);
+                sorted = true;
+            }
+            return samples[Math.min(count - 1, (int) Math.ceil(quantile * count) - 1)];
+        }
+
+        private void print() {
+            if (getCount() == 0) {
+                return;
+            }
+            System.out.printf("%n== %s ==%n", name);
+            System.out.printf("Requêtes: %d (%.1f req/s), erreurs: %d (%.2f %%), statuts: %s%n",
+                    getCount(), getThroughput(), getErrors(), getErrorRate() * 100, statuses);
+            System.out.printf("Latence (ms): p50 %.2f | p90 %.2f | p99 %.2f | p99.9 %.2f | max %.2f%n",
+                    millis(getPercentileNanos(0.50)), millis(getPercentileNanos(0.90)),
+                    millis(getPercentileNanos(0.99)), millis(getPercentileNanos(0.999)), millis(maxNanos.get()));
+
+            long[] cumulative = histogram.getCumulativeCounts();
+            long previous = 0;
+            long largest = 1;
+            for (long value : cumulative) {
+                largest = Math.max(largest, value - previous);
+                previous = value;
+            }
+            previous = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                long inBucket = cumulative[i] - previous;
+                previous = cumulative[i];
+                if (inBucket > 0) {
+                    System.out.printf("  <= %10.3f ms %8d %s%n", histogram.getUpperBoundSeconds(i) * 1000, inBucket,
+                            "#".repeat((int) Math.max(1, inBucket * 50 / largest)));
+                }
+            }
+            long overflow = histogram.getCount() - previous;
+            if (overflow > 0) {
+                System.out.printf("   > %10.3f ms %8d%n",
+                        histogram.getUpperBoundSeconds(histogram.getBucketCount() - 1) * 1000, overflow);
+            }
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", getCount());
+            map.put("throughputRps", getThroughput());
+            map.put("errors", getErrors());
+            map.put("p50Ms", millis(getPercentileNanos(0.50)));
+            map.put("p90Ms", millis(getPercentileNanos(0.90)));
+            map.put("p99Ms", millis(getPercentileNanos(0.99)));
+            map.put("p999Ms", millis(getPercentileNanos(0.999)));
+            map.put("maxMs", millis(maxNanos.get()));
+            return map;
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean passed;
+        try (StubRateProvider stub = StubRateProvider.fromSystemProperties()) {
+            System.out.printf("Fournisseur simulé: %s%n", stub.getPrimaryUrl());
+            passed = fromSystemProperties().run();
+            System.out.printf("Appels au fournisseur simulé: %d (dont %d erreurs injectées)%n",
+                    stub.getRequestCount(), stub.getInjectedErrorCount());
+        }
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -0,0 +1,188 @@
+package com.currencyconverter.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.currencyconverter.util.ConfigUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Fournisseur de taux local pour les tests de charge hors ligne.
+ *
+ * Répond aux deux formes d'URL des fournisseurs ({@code /latest?base=USD} et {@code /v4/latest/USD})
+ * avec une table fixe, après une latence configurable (fixe + gigue aléatoire), et renvoie une
+ * erreur 500 pour la proportion de requêtes demandée. Peut être lancé seul pour un {@code mvn jetty:run}:
+ * <pre>
+ * java -cp ... com.currencyconverter.loadtest.StubRateProvider
+ * mvn jetty:run -Dcurrency.provider.primaryUrl=http://127.0.0.1:18089/latest?base= \
+ *               -Dcurrency.provider.fallbackUrl=http://127.0.0.1:18089/v4/latest/
+ * </pre>
+ */
+public class StubRateProvider implements AutoCloseable {
+    private static final Map<String, BigDecimal> USD_RATES = new LinkedHashMap<>();
+
+    static {
+        USD_RATES.put("USD", BigDecimal.ONE);
+        USD_RATES.put("EUR", new BigDecimal("0.921345"));
+        USD_RATES.put("GBP", new BigDecimal("0.789012"));
+        USD_RATES.put("JPY", new BigDecimal("151.2345"));
+        USD_RATES.put("INR", new BigDecimal("83.1234"));
+        USD_RATES.put("CAD", new BigDecimal("1.3612"));
+        USD_RATES.put("AUD", new BigDecimal("1.5234"));
+        USD_RATES.put("CHF", new BigDecimal("0.8812"));
+        USD_RATES.put("CNY", new BigDecimal("7.2345"));
+        USD_RATES.put("SEK", new BigDecimal("10.4567"));
+        USD_RATES.put("NOK", new BigDecimal("10.6789"));
+        USD_RATES.put("MXN", new BigDecimal("17.0123"));
+        USD_RATES.put("SGD", new BigDecimal("1.3456"));
+        USD_RATES.put("HKD", new BigDecimal("7.8123"));
+        USD_RATES.put("NZD", new BigDecimal("1.6345"));
+        USD_RATES.put("XOF", new BigDecimal("604.3456"));
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    public StubRateProvider(int port, long latencyMs, long jitterMs, double errorRate) throws IOException {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Le taux d'erreur doit être compris entre 0 et 1: " + errorRate);
+        }
+        this.latencyMs = Math.max(0, latencyMs);
+        this.jitterMs = Math.max(0, jitterMs);
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        // Un thread virtuel par requête: la latence simulée n'immobilise aucun thread système
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static StubRateProvider fromSystemProperties() throws IOException {
+        return new StubRateProvider(
+                ConfigUtils.getInt("loadtest.stub.port", 18089),
+                ConfigUtils.getLong("loadtest.stub.latencyMs", 50),
+                ConfigUtils.getLong("loadtest.stub.jitterMs", 20),
+                Double.parseDouble(ConfigUtils.getString("loadtest.stub.errorRate", "0")));
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getPrimaryUrl() {
+        return "http://127.0.0.1:" + getPort() + "/latest?base=";
+    }
+
+    public String getFallbackUrl() {
+        return "http://127.0.0.1:" + getPort() + "/v4/latest/";
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            simulateLatency();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                send(exchange, 500, "{\"error\":\"Erreur injectée\"}");
+                return;
+            }
+
+            String base = extractBase(exchange);
+            BigDecimal baseRate = USD_RATES.get(base);
+            if (baseRate == null) {
+                send(exchange, 404, "{\"error\":\"Devise non supportée: " + base + "\"}");
+                return;
+            }
+            send(exchange, 200, buildTable(base, baseRate));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void simulateLatency() {
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay == 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // "?base=EUR" (fournisseur principal) ou ".../latest/EUR" (fournisseur de secours)
+    private static String extractBase(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.startsWith("base=")) {
+            return query.substring(5);
+        }
+        String path = exchange.getRequestURI().getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String buildTable(String base, BigDecimal baseRate) {
+        StringBuilder json = new StringBuilder("{\"base\":\"").append(base)
+                .append("\",\"timestamp\":").append(System.currentTimeMillis() / 1000)
+                .append(",\"rates\":{");
+        boolean first = true;
+        for (Map.Entry<String, BigDecimal> rate : USD_RATES.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(rate.getKey()).append("\":")
+                .append(rate.getValue().divide(baseRate, MathContext.DECIMAL64).toPlainString());
+        }
+        return json.append("}}").toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        StubRateProvider stub = fromSystemProperties();
+        System.out.printf("Fournisseur simulé démarré: %s | %s (latence %d ms + 0..%d ms, erreurs %.1f %%)%n",
+                stub.getPrimaryUrl(), stub.getFallbackUrl(), stub.latencyMs, stub.jitterMs, stub.errorRate * 100);
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,77 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.service.CurrencyConversionService;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.HttpClientSettings;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+@WebListener
+public class AppContextListener implements ServletContextListener {
+    private static final Logger logger = LoggerFactory.getLogger(AppContextListener.class);
+    
+    public static final String EXCHANGE_RATE_SERVICE = "currencyconverter.exchangeRateService";
+    public static final String CONVERSION_SERVICE = "currencyconverter.conversionService";
+    public static final String RATE_STREAM = "currencyconverter.rateStream";
+    public static final String STARTUP_WARMUP = "currencyconverter.startupWarmup";
+    
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServletContext context = event.getServletContext();
+        
+        // Un seul service (et donc un seul pool de connexions HTTP) partagé par toutes les servlets
+        ExchangeRateService exchangeRateService = new ExchangeRateService(HttpClientSettings.fromSystemProperties());
+        int restoredTables = exchangeRateService.loadPersistedRates();
+        context.setAttribute(EXCHANGE_RATE_SERVICE, exchangeRateService);
+        context.setAttribute(CONVERSION_SERVICE, new CurrencyConversionService(exchangeRateService));
+        context.setAttribute(RATE_STREAM, new RateStreamBroadcaster(exchangeRateService));
+        
+        // Préchauffage en arrière-plan: le déploiement n'attend pas, /api/health/ready en signale la fin
+        StartupWarmup warmup = new StartupWarmup(exchangeRateService);
+        context.setAttribute(STARTUP_WARMUP, warmup);
+        warmup.start();
+        
+        logger.info("Services de conversion initialisés ({} tables de taux restaurées)", restoredTables);
+    }
+    
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        ServletContext context = event.getServletContext();
+        ExchangeRateService exchangeRateService = (ExchangeRateService) context.getAttribute(EXCHANGE_RATE_SERVICE);
+        CurrencyConversionService conversionService =
+                (CurrencyConversionService) context.getAttribute(CONVERSION_SERVICE);
+        RateStreamBroadcaster rateStream = (RateStreamBroadcaster) context.getAttribute(RATE_STREAM);
+        StartupWarmup warmup = (StartupWarmup) context.getAttribute(STARTUP_WARMUP);
+        
+        context.removeAttribute(STARTUP_WARMUP);
+        context.removeAttribute(RATE_STREAM);
+        context.removeAttribute(CONVERSION_SERVICE);
+        context.removeAttribute(EXCHANGE_RATE_SERVICE);
+        
+        if (warmup != null) {
+            warmup.close();
+        }
+        // Les abonnés du flux sont déconnectés avant l'arrêt du service qui l'alimente
+        if (rateStream != null) {
+            rateStream.close();
+        }
+        if (conversionService != null) {
+            conversionService.close();
+        }
+        if (exchangeRateService != null) {
+            try {
+                exchangeRateService.close();
+            } catch (IOException e) {
+                logger.warn("Erreur lors de la fermeture du service de taux de change: {}", e.getMessage());
+            }
+        }
+    }
+}
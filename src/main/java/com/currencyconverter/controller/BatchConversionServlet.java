@@ -0,0 +1,248 @@
+package com.currencyconverter.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.ConversionResult;
+import com.currencyconverter.service.CurrencyConversionService;
+import com.currencyconverter.service.RateSnapshot;
+import com.currencyconverter.util.ConfigUtils;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+@WebServlet(urlPatterns = "/api/convert/batch", loadOnStartup = 1)
+public class BatchConversionServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(BatchConversionServlet.class);
+    private static final int DEFAULT_MAX_ITEMS = 10000;
+    
+    private CurrencyConversionService conversionService;
+    private int maxItems;
+    
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.conversionService = (CurrencyConversionService) getServletContext()
+                .getAttribute(AppContextListener.CONVERSION_SERVICE);
+        if (conversionService == null) {
+            throw new ServletException("Service de conversion non initialisé");
+        }
+        this.maxItems = ConfigUtils.getInt("currency.batch.maxItems", DEFAULT_MAX_ITEMS);
+        logger.info("BatchConversionServlet initialisé");
+    }
+    
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        
+        setResponseHeaders(response);
+        
+        JsonReader reader = new JsonReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        try {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST,
+                                "Le corps de la requête doit être un tableau JSON");
+                return;
+            }
+        } catch (IOException | IllegalStateException e) {
+            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, "JSON invalide");
+            return;
+        }
+        
+        response.setStatus(HttpServletResponse.SC_OK);
+        
+        // Lecture et écriture en flux: aucun élément du lot n'est conservé en mémoire
+        JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)));
+        BatchState state = new BatchState();
+        
+        writer.beginObject();
+        writer.name("results").beginArray();
+        
+        String batchError = null;
+        try {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                // Au-delà du plafond, la suite du corps n'est pas lue: une seule erreur pour tout le lot
+                if (state.count >= maxItems) {
+                    batchError = "Taille maximale du lot dépassée: " + maxItems;
+                    break;
+                }
+                convertItem(reader, writer, state);
+            }
+            if (batchError == null) {
+                reader.endArray();
+            }
+        } catch (MalformedJsonException | JsonParseException | IllegalStateException | NumberFormatException e) {
+            batchError = "JSON invalide après l'élément " + state.count;
+        } catch (IOException e) {
+            // Flux d'entrée interrompu: les résultats déjà écrits restent valides
+            batchError = "Lecture de la requête interrompue après l'élément " + state.count;
+        }
+        
+        writer.endArray();
+        writer.name("count").value(state.count);
+        writer.name("failed").value(state.failed);
+        if (batchError != null) {
+            writer.name("error").value(batchError);
+        }
+        writer.name("timestamp").value(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        writer.endObject();
+        writer.flush();
+        
+        logger.debug("Lot converti: {} éléments, {} en erreur", state.count, state.failed);
+    }
+    
+    private void convertItem(JsonReader reader, JsonWriter writer, BatchState state) throws IOException {
+        int index = state.count++;
+        
+        String fromCurrency = null;
+        String toCurrency = null;
+        String amountStr = null;
+        String invalidField = null;
+        
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+        } else {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                JsonToken token = reader.peek();
+                if (token == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                // Objet, tableau ou booléen à la place d'une valeur simple: erreur de l'élément, pas du lot
+                if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+                    reader.skipValue();
+                    if (invalidField == null && isItemField(name)) {
+                        invalidField = name;
+                    }
+                    continue;
+                }
+                switch (name) {
+                    case "from":
+                        fromCurrency = reader.nextString();
+                        break;
+                    case "to":
+                        toCurrency = reader.nextString();
+                        break;
+                    case "amount":
+                        amountStr = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        
+        if (invalidField != null) {
+            writeItemError(writer, state, index, HttpServletResponse.SC_BAD_REQUEST,
+                    "Type invalide pour le paramètre: " + invalidField);
+            return;
+        }
+        
+        if (fromCurrency == null || toCurrency == null || amountStr == null) {
+            writeItemError(writer, state, index, HttpServletResponse.SC_BAD_REQUEST,
+                    "Paramètres manquants: from, to, amount requis");
+            return;
+        }
+        
+        try {
+            BigDecimal amount = new BigDecimal(amountStr);
+            ConversionResult result = conversionService.convertCurrency(
+                    fromCurrency, toCurrency, amount, state.snapshot());
+            
+            writer.beginObject();
+            writer.name("index").value(index);
+            writer.name("fromCurrency").value(result.getFromCurrency());
+            writer.name("toCurrency").value(result.getToCurrency());
+            writer.name("amount").value(result.getAmount());
+            writer.name("convertedAmount").value(result.getConvertedAmount());
+            writer.name("exchangeRate").value(result.getExchangeRate());
+            writer.endObject();
+            
+        } catch (NumberFormatException e) {
+            writeItemError(writer, state, index, HttpServletResponse.SC_BAD_REQUEST,
+                    "Format de montant invalide: " + amountStr);
+        } catch (IllegalArgumentException e) {
+            writeItemError(writer, state, index, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            logger.warn("Taux de change indisponibles pour l'élément {}: {}", index, e.getMessage());
+            writeItemError(writer, state, index, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Service de taux de change temporairement indisponible");
+        }
+    }
+    
+    private static boolean isItemField(String name) {
+        return "from".equals(name) || "to".equals(name) || "amount".equals(name);
+    }
+    
+    private void writeItemError(JsonWriter writer, BatchState state, int index, int status, String message)
+            throws IOException {
+        state.failed++;
+        writer.beginObject();
+        writer.name("index").value(index);
+        writer.name("error").beginObject();
+        writer.name("status").value(status);
+        writer.name("message").value(message);
+        writer.endObject();
+        writer.endObject();
+    }
+    
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        setResponseHeaders(response);
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+    
+    private void setResponseHeaders(HttpServletResponse response) {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+    }
+    
+    private void sendErrorResponse(HttpServletResponse response, int statusCode, String message) 
+            throws IOException {
+        ConversionJsonWriter json = new ConversionJsonWriter()
+                .writeError(statusCode, message, System.currentTimeMillis());
+        response.setStatus(statusCode);
+        response.setContentLength(json.size());
+        json.writeTo(response.getOutputStream());
+    }
+    
+    private class BatchState {
+        private int count;
+        private int failed;
+        private RateSnapshot snapshot;
+        
+        // L'instantané n'est créé qu'au premier élément valide, puis partagé par tout le lot
+        RateSnapshot snapshot() throws IOException {
+            if (snapshot == null) {
+                snapshot = conversionService.createRateSnapshot();
+            }
+            return snapshot;
+        }
+    }
+}
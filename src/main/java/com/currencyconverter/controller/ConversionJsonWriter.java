@@ -0,0 +1,261 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import com.currencyconverter.model.ConversionResult;
+
+/**
+ * Sérialiseur JSON dédié aux réponses de /api/convert.
+ *
+ * Produit exactement les mêmes octets que Gson configuré avec LocalDateTimeAdapter
+ * (ordre des champs, échappement HTML, champs nuls omis), mais écrit directement
+ * en UTF-8 dans un tampon réutilisable, sans réflexion ni passage par un Writer.
+ * Une instance n'est pas thread-safe: elle est destinée à être réutilisée par un seul thread.
+ */
+public final class ConversionJsonWriter {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    // Séquences d'échappement de Gson pour l'ASCII (échappement HTML actif par défaut)
+    private static final byte[][] REPLACEMENTS = new byte[128][];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            REPLACEMENTS[c] = String.format("\\u%04x", c).getBytes(StandardCharsets.US_ASCII);
+        }
+        REPLACEMENTS['"'] = ascii("\\\"");
+        REPLACEMENTS['\\'] = ascii("\\\\");
+        REPLACEMENTS['\t'] = ascii("\\t");
+        REPLACEMENTS['\b'] = ascii("\\b");
+        REPLACEMENTS['\n'] = ascii("\\n");
+        REPLACEMENTS['\r'] = ascii("\\r");
+        REPLACEMENTS['\f'] = ascii("\\f");
+        REPLACEMENTS['<'] = ascii("\\u003c");
+        REPLACEMENTS['>'] = ascii("\\u003e");
+        REPLACEMENTS['&'] = ascii("\\u0026");
+        REPLACEMENTS['='] = ascii("\\u003d");
+        REPLACEMENTS['\''] = ascii("\\u0027");
+    }
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    public ConversionJsonWriter writeConversionResult(ConversionResult result) {
+        size = 0;
+        writeByte('{');
+        boolean first = true;
+        first = writeStringField("fromCurrency", result.getFromCurrency(), first);
+        first = writeStringField("toCurrency", result.getToCurrency(), first);
+        first = writeNumberField("amount", result.getAmount(), first);
+        first = writeNumberField("convertedAmount", result.getConvertedAmount(), first);
+        first = writeNumberField("exchangeRate", result.getExchangeRate(), first);
+        LocalDateTime timestamp = result.getTimestamp();
+        if (timestamp != null) {
+            writeFieldName("timestamp", first);
+            writeByte('"');
+            writeTimestamp(timestamp);
+            writeByte('"');
+        }
+        writeByte('}');
+        return this;
+    }
+
+    // Enveloppe d'erreur {status, message, timestamp} commune aux servlets
+    public ConversionJsonWriter writeError(int status, String message, long timestamp) {
+        size = 0;
+        writeByte('{');
+        writeFieldName("status", true);
+        writeLong(status);
+        writeStringField("message", message, false);
+        writeFieldName("timestamp", false);
+        writeLong(timestamp);
+        writeByte('}');
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private boolean writeStringField(String name, String value, boolean first) {
+        if (value == null) {
+            return first;
+        }
+        writeFieldName(name, first);
+        writeString(value);
+        return false;
+    }
+
+    private boolean writeNumberField(String name, BigDecimal value, boolean first) {
+        if (value == null) {
+            return first;
+        }
+        writeFieldName(name, first);
+        // BigDecimal met sa représentation en cache: pas d'allocation après le premier appel
+        writeAscii(value.toString());
+        return false;
+    }
+
+    private void writeFieldName(String name, boolean first) {
+        if (!first) {
+            writeByte(',');
+        }
+        writeByte('"');
+        writeAscii(name);
+        writeByte('"');
+        writeByte(':');
+    }
+
+    private void writeString(String value) {
+        writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                byte[] replacement = REPLACEMENTS[c];
+                if (replacement == null) {
+                    writeByte(c);
+                } else {
+                    writeBytes(replacement);
+                }
+            } else if (c == '\u2028' || c == '\u2029') {
+                writeUnicodeEscape(c);
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensureCapacity(4);
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Substitution identique à celle de l'encodeur UTF-8 du conteneur
+                writeByte('?');
+            } else {
+                ensureCapacity(3);
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeUnicodeEscape(char c) {
+        ensureCapacity(6);
+        buffer[size++] = '\\';
+        buffer[size++] = 'u';
+        buffer[size++] = HEX[(c >> 12) & 0xF];
+        buffer[size++] = HEX[(c >> 8) & 0xF];
+        buffer[size++] = HEX[(c >> 4) & 0xF];
+        buffer[size++] = HEX[c & 0xF];
+    }
+
+    // Équivalent de DateTimeFormatter.ISO_LOCAL_DATE_TIME
+    private void writeTimestamp(LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        if (year < 0 || year > 9999) {
+            writeAscii(timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        ensureCapacity(29);
+        writeDigits(year, 4);
+        buffer[size++] = '-';
+        writeDigits(timestamp.getMonthValue(), 2);
+        buffer[size++] = '-';
+        writeDigits(timestamp.getDayOfMonth(), 2);
+        buffer[size++] = 'T';
+        writeDigits(timestamp.getHour(), 2);
+        buffer[size++] = ':';
+        writeDigits(timestamp.getMinute(), 2);
+        buffer[size++] = ':';
+        writeDigits(timestamp.getSecond(), 2);
+        int nano = timestamp.getNano();
+        if (nano != 0) {
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            buffer[size++] = '.';
+            writeDigits(nano, digits);
+        }
+    }
+
+    private void writeDigits(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buffer[size + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += width;
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int start = size;
+        do {
+            buffer[size++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = size - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    private void writeAscii(String value) {
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,36 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.currencyconverter.model.BulkConversionSummary;
+import com.currencyconverter.service.CsvBulkConverter;
+import com.currencyconverter.service.CurrencyConversionService;
+import com.currencyconverter.service.ExchangeRateService;
+
+// Point d'entrée en ligne de commande pour convertir un fichier CSV sans passer par le serveur
+public class CsvConversionCommand {
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CsvConversionCommand <entrée.csv> <sortie.csv>");
+            System.exit(2);
+        }
+        
+        try (ExchangeRateService exchangeRateService = new ExchangeRateService();
+             FileChannel input = FileChannel.open(Path.of(args[0]), StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(Path.of(args[1]), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            
+            exchangeRateService.loadPersistedRates();
+            CsvBulkConverter converter = new CsvBulkConverter(new CurrencyConversionService(exchangeRateService));
+            BulkConversionSummary summary = converter.convert(input, output);
+            
+            System.out.printf("%d lignes converties (%d en erreur) en %d ms, %d lignes/s%n",
+                    summary.getRows(), summary.getFailedRows(), summary.getElapsedMillis(),
+                    summary.getRowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.BulkConversionSummary;
+import com.currencyconverter.service.CsvBulkConverter;
+import com.currencyconverter.service.CurrencyConversionService;
+
+@WebServlet(urlPatterns = "/api/convert/csv", loadOnStartup = 1)
+public class CsvConversionServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(CsvConversionServlet.class);
+    private static final String TRAILER_NAMES = "X-Conversion-Rows, X-Conversion-Failed, X-Conversion-Rows-Per-Second";
+    
+    private CsvBulkConverter csvConverter;
+    
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        CurrencyConversionService conversionService = (CurrencyConversionService) getServletContext()
+                .getAttribute(AppContextListener.CONVERSION_SERVICE);
+        if (conversionService == null) {
+            throw new ServletException("Service de conversion non initialisé");
+        }
+        this.csvConverter = new CsvBulkConverter(conversionService);
+        logger.info("CsvConversionServlet initialisé");
+    }
+    
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        
+        response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        
+        // Le débit n'est connu qu'à la fin du flux: il est renvoyé dans les trailers HTTP
+        AtomicReference<BulkConversionSummary> summary = new AtomicReference<>();
+        try {
+            response.setTrailerFields(() -> trailerFields(summary.get()));
+            response.setHeader("Trailer", TRAILER_NAMES);
+        } catch (IllegalStateException e) {
+            logger.debug("Trailers HTTP non supportés pour cette requête");
+        }
+        
+        try (ReadableByteChannel input = Channels.newChannel(request.getInputStream());
+             WritableByteChannel output = Channels.newChannel(response.getOutputStream())) {
+            summary.set(csvConverter.convert(input, output));
+        } catch (IOException e) {
+            logger.error("Erreur lors de la conversion CSV", e);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setContentType("application/json");
+                response.setCharacterEncoding("UTF-8");
+                ConversionJsonWriter json = new ConversionJsonWriter().writeError(
+                        HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Conversion CSV impossible: " + e.getMessage(),
+                        System.currentTimeMillis());
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setContentLength(json.size());
+                json.writeTo(response.getOutputStream());
+            }
+        }
+    }
+    
+    private static Map<String, String> trailerFields(BulkConversionSummary summary) {
+        if (summary == null) {
+            return Map.of();
+        }
+        return Map.of(
+                "X-Conversion-Rows", Long.toString(summary.getRows()),
+                "X-Conversion-Failed", Long.toString(summary.getFailedRows()),
+                "X-Conversion-Rows-Per-Second", Long.toString(summary.getRowsPerSecond()));
+    }
+    
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+}
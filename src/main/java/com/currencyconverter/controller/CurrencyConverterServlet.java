@@ -2,8 +2,17 @@ package com.currencyconverter.controller;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -13,26 +22,54 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.currencyconverter.metrics.ServiceMetrics;
 import com.currencyconverter.model.ConversionResult;
+import com.currencyconverter.model.Currency;
 import com.currencyconverter.service.CurrencyConversionService;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.VersionedRates;
+import com.currencyconverter.util.ConfigUtils;
 
-@WebServlet("/api/convert")
+@WebServlet(urlPatterns = "/api/convert", asyncSupported = true, loadOnStartup = 1)
 public class CurrencyConverterServlet extends HttpServlet {
     private static final Logger logger = LoggerFactory.getLogger(CurrencyConverterServlet.class);
+    private static final long DEFAULT_ASYNC_TIMEOUT_MS = 20000;
     
     private CurrencyConversionService conversionService;
-    private Gson gson;
+    private ExchangeRateService exchangeRateService;
+    private ServiceMetrics metrics;
+    private boolean asyncEnabled;
+    private long asyncTimeoutMs;
+    private ExecutorService conversionExecutor;
     
     @Override
     public void init() throws ServletException {
         super.init();
-        this.conversionService = new CurrencyConversionService();
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
-        logger.info("CurrencyConverterServlet initialisé");
+        this.conversionService = (CurrencyConversionService) getServletContext()
+                .getAttribute(AppContextListener.CONVERSION_SERVICE);
+        if (conversionService == null) {
+            throw new ServletException("Service de conversion non initialisé");
+        }
+        this.exchangeRateService = conversionService.getExchangeRateService();
+        this.metrics = exchangeRateService.getMetrics();
+        
+        // Les conversions qui doivent attendre un fournisseur quittent le pool du conteneur
+        this.asyncEnabled = ConfigUtils.getBoolean("currency.async.enabled", true);
+        this.asyncTimeoutMs = ConfigUtils.getLong("currency.async.timeoutMs", DEFAULT_ASYNC_TIMEOUT_MS);
+        if (asyncEnabled) {
+            this.conversionExecutor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("convert-async-", 0).factory());
+        }
+        logger.info("CurrencyConverterServlet initialisé (mode asynchrone: {}, délai: {} ms)",
+                asyncEnabled, asyncTimeoutMs);
+    }
+    
+    @Override
+    public void destroy() {
+        if (conversionExecutor != null) {
+            conversionExecutor.shutdownNow();
+        }
+        super.destroy();
     }
     
     @Override
@@ -51,34 +88,191 @@ public class CurrencyConverterServlet extends HttpServlet {
             return;
         }
         
+        // Date facultative (AAAA-MM-JJ): une date passée est servie depuis l'historique des taux
+        LocalDate date = null;
+        String dateStr = request.getParameter("date");
+        if (dateStr != null && !dateStr.isEmpty()) {
+            try {
+                date = LocalDate.parse(dateStr);
+            } catch (DateTimeParseException e) {
+                sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST,
+                                "Format de date invalide (AAAA-MM-JJ attendu): " + dateStr);
+                return;
+            }
+            if (!date.isBefore(LocalDate.now(ZoneOffset.UTC))) {
+                date = null;
+            }
+        }
+        
+        // Version lue avant la conversion: au pire la réponse est plus récente que son ETag,
+        // jamais l'inverse, et une revalidation renvoie alors simplement un 200
+        VersionedRates rates = null;
+        if (date == null) {
+            String ifNoneMatch = request.getHeader("If-None-Match");
+            boolean revalidation = ifNoneMatch != null && readCachedTable(fromCurrency, toCurrency, amountStr);
+            rates = exchangeRateService.getVersionedRates();
+            if (revalidation && matchesConversionEtag(ifNoneMatch, etag(rates))) {
+                setCacheHeaders(response, rates);
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        
+        if (date == null && requiresUpstreamFetch(fromCurrency, toCurrency)) {
+            try {
+                convertAsync(request, response, fromCurrency, toCurrency, amountStr, rates);
+                return;
+            } catch (RejectedExecutionException e) {
+                logger.warn("Exécuteur asynchrone indisponible, conversion synchrone");
+            }
+        }
+        
+        // Taux en cache ou historiques: réponse directe depuis le thread du conteneur
+        // Sérialiseur propre à la requête: pas de tampon retenu par les threads du conteneur après un redéploiement
+        ConversionJsonWriter json = new ConversionJsonWriter();
+        writeJson(response, convert(json, fromCurrency, toCurrency, amountStr, date), json, rates);
+    }
+    
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        setResponseHeaders(response);
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+    
+    // Revalidation: seule une conversion valide dont la table est en cache peut répondre 304. La table
+    // est lue comme pour une conversion (accès compté, rafraîchissement lancé si elle est périmée),
+    // sans quoi des clients qui ne font que revalider ne la feraient jamais rafraîchir
+    private boolean readCachedTable(String fromCurrency, String toCurrency, String amountStr) {
+        Currency from = Currency.lookup(fromCurrency);
+        Currency to = Currency.lookup(toCurrency);
+        if (from == null || to == null || !isValidAmount(amountStr) || !exchangeRateService.isCached(from, to)) {
+            return false;
+        }
+        if (from == to) {
+            return true;
+        }
         try {
-            BigDecimal amount = new BigDecimal(amountStr);
-            ConversionResult result = conversionService.convertCurrency(fromCurrency, toCurrency, amount);
+            exchangeRateService.getExchangeRates(exchangeRateService.isCrossRateMode()
+                    ? exchangeRateService.getPivotCurrency() : from.getCode());
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isValidAmount(String amountStr) {
+        try {
+            return new BigDecimal(amountStr).signum() >= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // "*" ne désigne aucune conversion précise: la réponse est toujours calculée
+    private static boolean matchesConversionEtag(String ifNoneMatch, String etag) {
+        return !"*".equals(ifNoneMatch.trim()) && RatesServlet.matchesEtag(ifNoneMatch, etag);
+    }
+
+    // Devises inconnues: l'erreur est immédiate, inutile de quitter le thread du conteneur
+    private boolean requiresUpstreamFetch(String fromCurrency, String toCurrency) {
+        if (!asyncEnabled) {
+            return false;
+        }
+        Currency from = Currency.lookup(fromCurrency);
+        Currency to = Currency.lookup(toCurrency);
+        return from != null && to != null && !exchangeRateService.isCached(from, to);
+    }
+    
+    private void convertAsync(HttpServletRequest request, HttpServletResponse response,
+                              String fromCurrency, String toCurrency, String amountStr, VersionedRates rates) {
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(asyncTimeoutMs);
+        // Premier arrivé entre la fin de la conversion et l'expiration du délai: lui seul écrit la réponse
+        AtomicBoolean responded = new AtomicBoolean();
+        
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (responded.compareAndSet(false, true)) {
+                    metrics.recordAsyncTimeout();
+                    logger.warn("Délai dépassé pour la conversion {} -> {}", fromCurrency, toCurrency);
+                    try {
+                        sendErrorResponse(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                                "Service de taux de change temporairement indisponible");
+                    } finally {
+                        asyncContext.complete();
+                    }
+                }
+            }
             
-            response.setStatus(HttpServletResponse.SC_OK);
-            response.getWriter().write(gson.toJson(result));
+            @Override
+            public void onError(AsyncEvent event) {
+                if (responded.compareAndSet(false, true)) {
+                    asyncContext.complete();
+                }
+            }
+            
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+            
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        
+        try {
+            conversionExecutor.execute(() -> {
+                ConversionJsonWriter json = new ConversionJsonWriter();
+                int status = convert(json, fromCurrency, toCurrency, amountStr, null);
+                if (!responded.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    writeJson(response, status, json, rates);
+                } catch (IOException e) {
+                    logger.debug("Client déconnecté avant la réponse de conversion", e);
+                } finally {
+                    asyncContext.complete();
+                }
+            });
+            metrics.recordAsyncConversion();
+        } catch (RejectedExecutionException e) {
+            responded.set(true);
+            asyncContext.complete();
+            throw e;
+        }
+    }
+    
+    // Effectue la conversion et sérialise le résultat ou l'erreur; renvoie le statut HTTP
+    private int convert(ConversionJsonWriter json, String fromCurrency, String toCurrency, String amountStr,
+                        LocalDate date) {
+        try {
+            ConversionResult result = date == null
+                    ? conversionService.convertCurrency(fromCurrency, toCurrency, amountStr)
+                    : conversionService.convertCurrency(fromCurrency, toCurrency, new BigDecimal(amountStr), date);
+            json.writeConversionResult(result);
+            return HttpServletResponse.SC_OK;
             
         } catch (NumberFormatException e) {
-            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, 
-                            "Format de montant invalide: " + amountStr);
+            return error(json, HttpServletResponse.SC_BAD_REQUEST, "Format de montant invalide: " + amountStr);
         } catch (IllegalArgumentException e) {
-            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return error(json, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
         } catch (IOException e) {
             logger.error("Erreur lors de la récupération des taux de change", e);
-            sendErrorResponse(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 
+            return error(json, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 
                             "Service de taux de change temporairement indisponible");
         } catch (Exception e) {
             logger.error("Erreur interne", e);
-            sendErrorResponse(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, 
+            return error(json, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, 
                             "Erreur interne du serveur");
         }
     }
     
-    @Override
-    protected void doOptions(HttpServletRequest request, HttpServletResponse response) 
-            throws ServletException, IOException {
-        setResponseHeaders(response);
-        response.setStatus(HttpServletResponse.SC_OK);
+    private static int error(ConversionJsonWriter json, int statusCode, String message) {
+        json.writeError(statusCode, message, System.currentTimeMillis());
+        return statusCode;
     }
     
     private void setResponseHeaders(HttpServletResponse response) {
@@ -89,26 +283,30 @@ public class CurrencyConverterServlet extends HttpServlet {
         response.setHeader("Access-Control-Allow-Headers", "Content-Type");
     }
     
+    // Réponse réutilisable par les clients et caches intermédiaires jusqu'au prochain rafraîchissement
+    private static void setCacheHeaders(HttpServletResponse response, VersionedRates rates) {
+        response.setHeader("ETag", etag(rates));
+        response.setHeader("Cache-Control", "public, max-age=" + rates.getMaxAgeSeconds());
+    }
+    
+    private static String etag(VersionedRates rates) {
+        return "W/\"" + rates.getVersion() + "\"";
+    }
+    
     private void sendErrorResponse(HttpServletResponse response, int statusCode, String message) 
             throws IOException {
-        response.setStatus(statusCode);
-        ErrorResponse errorResponse = new ErrorResponse(statusCode, message);
-        response.getWriter().write(gson.toJson(errorResponse));
+        ConversionJsonWriter json = new ConversionJsonWriter();
+        writeJson(response, error(json, statusCode, message), json, null);
     }
     
-    private static class ErrorResponse {
-        private final int status;
-        private final String message;
-        private final long timestamp;
-        
-        public ErrorResponse(int status, String message) {
-            this.status = status;
-            this.message = message;
-            this.timestamp = System.currentTimeMillis();
+    // Seules les conversions réussies au taux courant portent la version des taux
+    private void writeJson(HttpServletResponse response, int statusCode, ConversionJsonWriter json,
+                           VersionedRates rates) throws IOException {
+        if (rates != null && statusCode == HttpServletResponse.SC_OK) {
+            setCacheHeaders(response, rates);
         }
-        
-        public int getStatus() { return status; }
-        public String getMessage() { return message; }
-        public long getTimestamp() { return timestamp; }
+        response.setStatus(statusCode);
+        response.setContentLength(json.size());
+        json.writeTo(response.getOutputStream());
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,15 @@
 package com.currencyconverter.controller;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,42 +23,66 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-@WebServlet("/api/currencies")
+@WebServlet(urlPatterns = "/api/currencies", loadOnStartup = 1)
 public class CurrencyListServlet extends HttpServlet {
     private static final Logger logger = LoggerFactory.getLogger(CurrencyListServlet.class);
+    private static final String CACHE_CONTROL = "public, max-age=3600";
     
-    private Gson gson;
+    // La liste ne change qu'au redéploiement: réponse sérialisée et compressée une seule fois
+    private byte[] payload;
+    private byte[] gzipPayload;
+    private String etag;
+    private String gzipEtag;
     
     @Override
     public void init() throws ServletException {
         super.init();
-        this.gson = new Gson();
-        logger.info("CurrencyListServlet initialisé");
+        
+        List<CurrencyInfo> currencies = Arrays.stream(Currency.values())
+                .map(c -> new CurrencyInfo(c.getCode(), c.getName(), c.getSymbol()))
+                .collect(Collectors.toList());
+        
+        try {
+            this.payload = new Gson().toJson(currencies).getBytes(StandardCharsets.UTF_8);
+            this.gzipPayload = gzip(payload);
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload), 0, 16);
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ServletException("Impossible de préparer la liste des devises", e);
+        }
+        
+        logger.info("CurrencyListServlet initialisé ({} octets, {} compressés)", payload.length, gzipPayload.length);
     }
     
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
         
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
         response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        response.setHeader("Vary", "Accept-Encoding");
         
-        try {
-            List<CurrencyInfo> currencies = Arrays.stream(Currency.values())
-                    .map(c -> new CurrencyInfo(c.getCode(), c.getName(), c.getSymbol()))
-                    .collect(Collectors.toList());
-            
-            response.setStatus(HttpServletResponse.SC_OK);
-            response.getWriter().write(gson.toJson(currencies));
-            
-        } catch (Exception e) {
-            logger.error("Erreur lors de la récupération de la liste des devises", e);
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            response.getWriter().write(gson.toJson(new ErrorResponse("Erreur interne du serveur")));
+        boolean gzip = acceptsGzip(request.getHeader("Accept-Encoding"));
+        String currentEtag = gzip ? gzipEtag : etag;
+        response.setHeader("ETag", currentEtag);
+        
+        if (matchesEtag(request.getHeader("If-None-Match"))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
         }
+        
+        byte[] body = gzip ? gzipPayload : payload;
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
     
     @Override
@@ -64,6 +94,44 @@ public class CurrencyListServlet extends HttpServlet {
         response.setStatus(HttpServletResponse.SC_OK);
     }
     
+    // Comparaison faible (RFC 9110): l'une ou l'autre variante suffit, le contenu étant identique
+    private boolean matchesEtag(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+    
     private static class CurrencyInfo {
         private final String code;
         private final String name;
@@ -79,14 +147,4 @@ public class CurrencyListServlet extends HttpServlet {
         public String getName() { return name; }
         public String getSymbol() { return symbol; }
     }
-    
-    private static class ErrorResponse {
-        private final String message;
-        
-        public ErrorResponse(String message) {
-            this.message = message;
-        }
-        
-        public String getMessage() { return message; }
-    }
-}
\ No newline at end of file
+}
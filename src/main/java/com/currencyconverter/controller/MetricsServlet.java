@@ -0,0 +1,233 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.metrics.LatencyHistogram;
+import com.currencyconverter.metrics.ServiceMetrics;
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.service.CircuitBreaker;
+import com.currencyconverter.service.ClusterPeers;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.RateSource;
+import com.currencyconverter.util.AdmissionControlFilter;
+
+// Exposition des métriques au format texte de Prometheus
+@WebServlet(urlPatterns = "/api/metrics", loadOnStartup = 1)
+public class MetricsServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsServlet.class);
+    private static final RateSource[] PROVIDERS = {RateSource.PRIMARY, RateSource.FALLBACK};
+    private static final RateSource[] CLUSTER_PROVIDERS = {RateSource.PRIMARY, RateSource.FALLBACK, RateSource.PEER};
+    
+    private ExchangeRateService exchangeRateService;
+    private RateStreamBroadcaster rateStream;
+    
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.exchangeRateService = (ExchangeRateService) getServletContext()
+                .getAttribute(AppContextListener.EXCHANGE_RATE_SERVICE);
+        if (exchangeRateService == null) {
+            throw new ServletException("Service de taux de change non initialisé");
+        }
+        this.rateStream = (RateStreamBroadcaster) getServletContext().getAttribute(AppContextListener.RATE_STREAM);
+        logger.info("MetricsServlet initialisé");
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        
+        ServiceMetrics metrics = exchangeRateService.getMetrics();
+        ClusterPeers cluster = exchangeRateService.getClusterPeers();
+        // En mode cluster, les appels aux autres instances sont comptés comme un fournisseur "peer"
+        RateSource[] providers = cluster == null ? PROVIDERS : CLUSTER_PROVIDERS;
+        StringBuilder out = new StringBuilder(8192);
+        
+        counter(out, "currency_cache_hits_total", "Tables servies depuis le cache (fraîches)", metrics.getCacheHits());
+        counter(out, "currency_cache_stale_hits_total", "Tables périmées servies pendant un rafraîchissement",
+                metrics.getCacheStaleHits());
+        counter(out, "currency_cache_misses_total", "Récupérations bloquantes déclenchées par le cache",
+                metrics.getCacheMisses());
+        counter(out, "currency_cache_coalesced_waits_total", "Requêtes ayant attendu une récupération en cours",
+                metrics.getCoalescedWaits());
+        counter(out, "currency_cache_background_refreshes_total", "Rafraîchissements en arrière-plan réussis",
+                metrics.getBackgroundRefreshes());
+        counter(out, "currency_cache_degraded_serves_total", "Tables expirées servies faute de fournisseur",
+                metrics.getDegradedServes());
+        counter(out, "currency_cache_evictions_total", "Tables évincées pour respecter les bornes du cache",
+                metrics.getCacheEvictions());
+        counter(out, "currency_cache_expirations_total", "Tables expirées et inutilisées retirées du cache",
+                metrics.getCacheExpirations());
+        gauge(out, "currency_rate_cache_entries", "Tables en cache (y compris récupérations en cours)",
+                exchangeRateService.getCacheEntryCount());
+        gauge(out, "currency_rate_cache_max_entries", "Nombre maximal de tables en cache",
+                exchangeRateService.getCacheMaxEntries());
+        gauge(out, "currency_rate_cache_weight_bytes", "Empreinte mémoire estimée des tables en cache",
+                exchangeRateService.getCacheWeightBytes());
+        gauge(out, "currency_rate_cache_max_weight_bytes", "Empreinte maximale avant éviction",
+                exchangeRateService.getCacheMaxWeightBytes());
+        
+        header(out, "currency_rate_tables_served_total", "counter", "Tables de taux servies par origine");
+        for (RateSource source : RateSource.values()) {
+            sample(out, "currency_rate_tables_served_total", "source", source.getLabel(),
+                    metrics.getTablesServed(source));
+        }
+        
+        header(out, "currency_upstream_requests_total", "counter", "Appels aux fournisseurs de taux");
+        for (RateSource provider : providers) {
+            out.append("currency_upstream_requests_total{provider=\"").append(provider.getLabel())
+               .append("\",outcome=\"success\"} ").append(metrics.getUpstreamSuccesses(provider)).append('\n');
+            out.append("currency_upstream_requests_total{provider=\"").append(provider.getLabel())
+               .append("\",outcome=\"failure\"} ").append(metrics.getUpstreamFailures(provider)).append('\n');
+        }
+        
+        header(out, "currency_upstream_latency_seconds", "histogram", "Latence des appels aux fournisseurs");
+        for (RateSource provider : providers) {
+            histogram(out, "currency_upstream_latency_seconds", "provider=\"" + provider.getLabel() + "\"",
+                    metrics.getUpstreamLatency(provider));
+        }
+        
+        counter(out, "currency_upstream_hedged_requests_total", "Requêtes couvertes vers le fournisseur suivant",
+                metrics.getHedgedRequests());
+        
+        header(out, "currency_upstream_circuit_rejections_total", "counter", "Appels évités par un disjoncteur ouvert");
+        for (RateSource provider : providers) {
+            sample(out, "currency_upstream_circuit_rejections_total", "provider", provider.getLabel(),
+                    metrics.getCircuitRejections(provider));
+        }
+        
+        header(out, "currency_upstream_circuit_state", "gauge", "État du disjoncteur (0 fermé, 1 ouvert, 2 semi-ouvert)");
+        for (RateSource provider : PROVIDERS) {
+            CircuitBreaker.State state = exchangeRateService.getCircuitState(provider);
+            if (state != null) {
+                sample(out, "currency_upstream_circuit_state", "provider", provider.getLabel(), state.ordinal());
+            }
+        }
+        
+        if (cluster != null) {
+            header(out, "currency_cluster_peer_circuit_state", "gauge",
+                    "État du disjoncteur de chaque pair (0 fermé, 1 ouvert, 2 semi-ouvert)");
+            for (int i = 0; i < cluster.getPeers().size(); i++) {
+                sample(out, "currency_cluster_peer_circuit_state", "peer", cluster.getPeers().get(i),
+                        cluster.getPeerState(i).ordinal());
+            }
+            counter(out, "currency_cluster_peer_misses_total",
+                    "Récupérations reportées sur les fournisseurs faute de table fraîche chez un pair",
+                    cluster.getPeerMisses());
+            counter(out, "currency_cluster_peer_stale_tables_total",
+                    "Tables de pairs ignorées car plus anciennes que le TTL souple", cluster.getStaleTables());
+            counter(out, "currency_cluster_rejected_callers_total",
+                    "Requêtes sur /internal/rates refusées (appelant hors du cluster)", cluster.getRejectedCallers());
+            header(out, "currency_cluster_owned_bases", "gauge", "Devises de base dont cette instance est propriétaire");
+            for (Currency base : Currency.values()) {
+                sample(out, "currency_cluster_owned_bases", "base", base.getCode(), cluster.isOwner(base) ? 1 : 0);
+            }
+        }
+        
+        StartupWarmup warmup = (StartupWarmup) getServletContext().getAttribute(AppContextListener.STARTUP_WARMUP);
+        if (warmup != null) {
+            gauge(out, "currency_ready", "Instance prête à recevoir du trafic (préchauffage terminé)",
+                    warmup.isReady() ? 1 : 0);
+        }
+        
+        // Lu à chaque collecte: le filtre n'existe pas si le contrôle d'admission est désactivé
+        AdmissionControlFilter admission = (AdmissionControlFilter) getServletContext()
+                .getAttribute(AdmissionControlFilter.CONTEXT_ATTRIBUTE);
+        if (admission != null) {
+            header(out, "currency_admission_limit", "gauge", "Limite adaptative de conversions simultanées");
+            sample(out, "currency_admission_limit", "class", "cache", admission.getCacheLimiter().getLimit());
+            sample(out, "currency_admission_limit", "class", "upstream", admission.getUpstreamLimiter().getLimit());
+            header(out, "currency_admission_in_flight", "gauge", "Conversions en cours");
+            sample(out, "currency_admission_in_flight", "class", "cache", admission.getCacheLimiter().getInFlight());
+            sample(out, "currency_admission_in_flight", "class", "upstream", admission.getUpstreamLimiter().getInFlight());
+            header(out, "currency_admission_rejections_total", "counter", "Conversions refusées par le contrôle d'admission");
+            sample(out, "currency_admission_rejections_total", "reason", "client_rate", admission.getClientRateRejections());
+            sample(out, "currency_admission_rejections_total", "reason", "cache_limit", admission.getCacheRejections());
+            sample(out, "currency_admission_rejections_total", "reason", "upstream_limit", admission.getUpstreamRejections());
+        }
+        
+        counter(out, "currency_conversions_total", "Conversions réussies", metrics.getConversions());
+        counter(out, "currency_conversion_errors_total", "Conversions en erreur", metrics.getConversionErrors());
+        counter(out, "currency_async_conversions_total", "Conversions déléguées hors du thread du conteneur",
+                metrics.getAsyncConversions());
+        counter(out, "currency_async_timeouts_total", "Conversions asynchrones expirées", metrics.getAsyncTimeouts());
+        if (rateStream != null) {
+            gauge(out, "currency_stream_subscribers", "Abonnés connectés au flux des taux",
+                    rateStream.getSubscriberCount());
+            counter(out, "currency_stream_updates_total", "Mises à jour de tables diffusées aux abonnés",
+                    rateStream.getPublishedUpdates());
+            counter(out, "currency_stream_dropped_subscribers_total", "Abonnés trop lents déconnectés",
+                    rateStream.getDroppedSubscribers());
+        }
+        header(out, "currency_conversion_latency_seconds", "histogram", "Latence des conversions");
+        histogram(out, "currency_conversion_latency_seconds", null, metrics.getConversionLatency());
+        
+        header(out, "currency_rate_cache_age_seconds", "gauge", "Âge de chaque table en cache");
+        for (ExchangeRateService.CacheStatus status : exchangeRateService.getCacheStatus()) {
+            out.append("currency_rate_cache_age_seconds{base=\"").append(status.getBaseCurrency())
+               .append("\",source=\"").append(status.getSource().getLabel())
+               .append("\",stale=\"").append(status.isStale()).append("\"} ")
+               .append(formatSeconds(status.getAgeMillis() / 1000.0)).append('\n');
+        }
+        header(out, "currency_rate_cache_table_weight_bytes", "gauge", "Empreinte estimée de chaque table en cache");
+        for (ExchangeRateService.CacheStatus status : exchangeRateService.getCacheStatus()) {
+            sample(out, "currency_rate_cache_table_weight_bytes", "base", status.getBaseCurrency(),
+                    status.getWeightBytes());
+        }
+        
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().write(out.toString());
+    }
+    
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, "counter", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+    
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        header(out, name, "gauge", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+    
+    private static void sample(StringBuilder out, String name, String label, String labelValue, long value) {
+        out.append(name).append('{').append(label).append("=\"").append(labelValue).append("\"} ")
+           .append(value).append('\n');
+    }
+    
+    private static void histogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        String prefix = labels == null ? "" : labels + ",";
+        long[] cumulative = histogram.getCumulativeCounts();
+        for (int i = 0; i < cumulative.length; i++) {
+            out.append(name).append("_bucket{").append(prefix).append("le=\"")
+               .append(formatSeconds(histogram.getUpperBoundSeconds(i))).append("\"} ")
+               .append(cumulative[i]).append('\n');
+        }
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ")
+           .append(histogram.getCount()).append('\n');
+        String suffix = labels == null ? " " : "{" + labels + "} ";
+        out.append(name).append("_sum").append(suffix).append(formatSeconds(histogram.getSumSeconds())).append('\n');
+        out.append(name).append("_count").append(suffix).append(histogram.getCount()).append('\n');
+    }
+    
+    private static String formatSeconds(double seconds) {
+        return String.format(Locale.ROOT, "%.6f", seconds);
+    }
+}
@@ -0,0 +1,97 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+import java.util.Map;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.service.ClusterPeers;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.PersistedRateStore;
+
+// Point d'accès interne du mode cluster: une table au format FXR1, date de récupération comprise
+@WebServlet(urlPatterns = ClusterPeers.PEER_PATH, loadOnStartup = 1)
+public class PeerRatesServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(PeerRatesServlet.class);
+
+    private ExchangeRateService exchangeRateService;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.exchangeRateService = (ExchangeRateService) getServletContext()
+                .getAttribute(AppContextListener.EXCHANGE_RATE_SERVICE);
+        if (exchangeRateService == null) {
+            throw new ServletException("Service de taux de change non initialisé");
+        }
+        logger.info("PeerRatesServlet initialisé (mode cluster: {})", exchangeRateService.getClusterPeers() != null);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        ClusterPeers cluster = exchangeRateService.getClusterPeers();
+        if (cluster == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Une requête peut déclencher une récupération bloquante: réservée aux membres du cluster
+        if (!cluster.isTrustedCaller(request.getRemoteAddr(), request.getHeader(ClusterPeers.SECRET_HEADER))) {
+            logger.debug("Requête de {} sur {} refusée: appelant hors du cluster", request.getRemoteAddr(),
+                    ClusterPeers.PEER_PATH);
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        Currency base = Currency.lookup(request.getParameter("base"));
+        if (base == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        // Un membre moins bien classé attend ici la récupération faite pour tout le cluster
+        PersistedRateStore.StoredTable table;
+        try {
+            table = exchangeRateService.getRatesForPeer(base.getCode(), callerTimeoutMs(request));
+        } catch (IOException e) {
+            logger.warn("Table {} indisponible pour un pair: {}", base, e.getMessage());
+            table = null;
+        }
+        if (table == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        byte[] body = PersistedRateStore.encode(Map.of(base.getCode(), table));
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setCharacterEncoding(null);
+        response.setContentType("application/octet-stream");
+        response.setHeader("Cache-Control", "no-store");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // Délai annoncé par le demandeur; à défaut, celui configuré pour le cluster
+    private long callerTimeoutMs(HttpServletRequest request) {
+        String header = request.getHeader(ClusterPeers.TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                long timeoutMs = Long.parseLong(header.trim());
+                if (timeoutMs > 0) {
+                    return timeoutMs;
+                }
+            } catch (NumberFormatException e) {
+                logger.debug("En-tête {} invalide: {}", ClusterPeers.TIMEOUT_HEADER, header);
+            }
+        }
+        return exchangeRateService.getClusterPeers().getTimeoutMs();
+    }
+}
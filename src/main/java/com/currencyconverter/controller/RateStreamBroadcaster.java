@@ -0,0 +1,475 @@
+package com.currencyconverter.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.model.RateTable;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.RateUpdateListener;
+import com.currencyconverter.util.ConfigUtils;
+
+/**
+ * Diffusion des tables de taux aux abonnés Server-Sent Events de /api/rates/stream.
+ *
+ * Chaque mise à jour d'une table est sérialisée une seule fois (instantané complet et delta
+ * depuis la version précédente) et les mêmes octets sont mis en file chez tous les abonnés.
+ * Aucun thread n'est attaché à une connexion: les écritures sont non bloquantes (WriteListener)
+ * et un unique thread "rate-stream" détient l'état des canaux, les diffusions et les battements.
+ * Un abonné dont la file déborde (client trop lent) est déconnecté; il se reconnecte seul et
+ * reçoit alors un instantané.
+ */
+public final class RateStreamBroadcaster implements RateUpdateListener, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(RateStreamBroadcaster.class);
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final int DEFAULT_MAX_SUBSCRIBERS = 10000;
+    private static final int DEFAULT_MAX_QUEUED_FRAMES = 32;
+    private static final long DEFAULT_HEARTBEAT_SECONDS = 15;
+    private static final byte[] RETRY = "retry: 5000\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ExchangeRateService exchangeRateService;
+    private final Channel[] channels = new Channel[CURRENCIES.length];
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final int maxSubscribers;
+    private final int maxQueuedFrames;
+    private final AtomicInteger reservedSlots = new AtomicInteger();
+    private final LongAdder publishedUpdates = new LongAdder();
+    private final LongAdder droppedSubscribers = new LongAdder();
+    private final ScheduledExecutorService streamExecutor;
+    private final ExecutorService fetchExecutor;
+
+    public RateStreamBroadcaster(ExchangeRateService exchangeRateService) {
+        this.exchangeRateService = exchangeRateService;
+        for (Currency currency : CURRENCIES) {
+            channels[currency.ordinal()] = new Channel(currency);
+        }
+        this.maxSubscribers = ConfigUtils.getInt("currency.stream.maxSubscribers", DEFAULT_MAX_SUBSCRIBERS);
+        this.maxQueuedFrames = Math.max(2, ConfigUtils.getInt("currency.stream.maxQueuedFrames", DEFAULT_MAX_QUEUED_FRAMES));
+        long heartbeatSeconds = Math.max(1, ConfigUtils.getLong("currency.stream.heartbeatSeconds", DEFAULT_HEARTBEAT_SECONDS));
+
+        this.streamExecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("rate-stream").daemon().factory());
+        // Les lectures de tables peuvent attendre un fournisseur: jamais sur le thread de diffusion
+        this.fetchExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("rate-stream-fetch-", 0).factory());
+        streamExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        exchangeRateService.addRateListener(this);
+    }
+
+    // Réserve une place d'abonné; false si la limite de connexions est atteinte
+    boolean tryReserve() {
+        if (reservedSlots.incrementAndGet() > maxSubscribers) {
+            reservedSlots.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void release() {
+        reservedSlots.decrementAndGet();
+    }
+
+    // Prend en charge une connexion en mode asynchrone, avec une place déjà réservée.
+    // lastEventId est la dernière version reçue par le client avant reconnexion (0 si aucune)
+    void subscribe(Currency base, AsyncContext asyncContext, ServletOutputStream output, long lastEventId) {
+        Channel channel = channels[base.ordinal()];
+        Subscriber subscriber = new Subscriber(channel, asyncContext, output);
+        try {
+            asyncContext.addListener(subscriber);
+            output.setWriteListener(subscriber);
+        } catch (RuntimeException e) {
+            // La place réservée est rendue par l'appelant
+            subscriber.discard();
+            throw e;
+        }
+        subscribers.add(subscriber);
+
+        if (!runOnStream(() -> attach(subscriber, lastEventId))) {
+            subscriber.close();
+        }
+    }
+
+    @Override
+    public void onRatesUpdated(RateTable rates) {
+        // Appelé par le thread de récupération: la diffusion est faite plus tard, sur le thread dédié
+        if (!exchangeRateService.isCrossRateMode()) {
+            runOnStream(() -> publish(channels[rates.getBase().ordinal()], rates, true));
+            return;
+        }
+        // Mode croisé: seule la table pivot fait foi, les autres canaux sont rederivés de la nouvelle matrice
+        if (!rates.getBase().getCode().equals(exchangeRateService.getPivotCurrency())) {
+            return;
+        }
+        runOnStream(() -> {
+            publish(channels[rates.getBase().ordinal()], rates, true);
+            for (Channel channel : channels) {
+                if (channel.base != rates.getBase() && !channel.subscribers.isEmpty()) {
+                    requestTable(channel);
+                }
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public long getPublishedUpdates() {
+        return publishedUpdates.sum();
+    }
+
+    public long getDroppedSubscribers() {
+        return droppedSubscribers.sum();
+    }
+
+    private void attach(Subscriber subscriber, long lastEventId) {
+        if (subscriber.isClosed()) {
+            return;
+        }
+        Channel channel = subscriber.channel;
+        channel.subscribers.add(subscriber);
+        deliver(subscriber, RETRY);
+        if (channel.table != null) {
+            subscriber.version = channel.version;
+            // Reconnexion d'un client déjà à jour: rien à renvoyer; en retard d'une version: le delta suffit
+            if (lastEventId == channel.previousVersion && lastEventId != 0 && channel.deltaFrame != null) {
+                deliver(subscriber, channel.deltaFrame);
+            } else if (lastEventId != channel.version) {
+                deliver(subscriber, channel.snapshotFrame);
+            }
+        }
+        // Relit la table du service: la version du canal peut dater d'avant la dernière éviction
+        requestTable(channel);
+    }
+
+    private void publish(Channel channel, RateTable table, boolean stored) {
+        RateTable previous = channel.table;
+        if (table == previous) {
+            return;
+        }
+        // Une table lue hors cache (taux fixes) n'est rediffusée que si ses taux ont changé
+        if (previous != null && !stored && sameRates(previous, table)) {
+            return;
+        }
+
+        long version = Math.max(channel.version + 1, System.currentTimeMillis());
+        channel.deltaFrame = previous == null ? null
+                : frame("delta", version, deltaJson(previous, table, channel.version, version));
+        channel.snapshotFrame = frame("snapshot", version, snapshotJson(table, version));
+        channel.previousVersion = channel.version;
+        channel.version = version;
+        channel.table = table;
+        publishedUpdates.increment();
+
+        for (Subscriber subscriber : new ArrayList<>(channel.subscribers)) {
+            boolean upToDate = subscriber.version == channel.previousVersion && channel.deltaFrame != null;
+            subscriber.version = version;
+            deliver(subscriber, upToDate ? channel.deltaFrame : channel.snapshotFrame);
+        }
+        logger.debug("Table {} diffusée (version {}) à {} abonnés", table.getBase(), version, channel.subscribers.size());
+    }
+
+    private void heartbeat() {
+        for (Channel channel : channels) {
+            if (channel.subscribers.isEmpty()) {
+                continue;
+            }
+            for (Subscriber subscriber : new ArrayList<>(channel.subscribers)) {
+                deliver(subscriber, HEARTBEAT);
+            }
+            // Des abonnés qui convertissent localement ne sollicitent plus le cache: cette lecture
+            // compte comme un accès et déclenche le rafraîchissement anticipé de la table diffusée
+            requestTable(channel);
+        }
+    }
+
+    private void requestTable(Channel channel) {
+        if (channel.fetchPending) {
+            return;
+        }
+        channel.fetchPending = true;
+        try {
+            fetchExecutor.execute(() -> {
+                RateTable table = null;
+                try {
+                    table = readTable(channel.base);
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Table {} indisponible pour la diffusion: {}", channel.base, e.getMessage());
+                }
+                RateTable result = table;
+                runOnStream(() -> {
+                    channel.fetchPending = false;
+                    if (result != null) {
+                        publish(channel, result, false);
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            channel.fetchPending = false;
+        }
+    }
+
+    // En mode croisé, toute devise de base est une ligne de la matrice: seule la table pivot est récupérée
+    private RateTable readTable(Currency base) throws IOException {
+        if (exchangeRateService.isCrossRateMode()) {
+            return exchangeRateService.getRateMatrix().getRateTable(base);
+        }
+        return exchangeRateService.getExchangeRates(base.getCode());
+    }
+
+    private void deliver(Subscriber subscriber, byte[] frame) {
+        if (!subscriber.offer(frame)) {
+            if (!subscriber.isClosed()) {
+                droppedSubscribers.increment();
+                logger.debug("Abonné trop lent déconnecté du flux {}", subscriber.channel.base);
+                subscriber.close();
+            }
+            return;
+        }
+        subscriber.drain();
+    }
+
+    private boolean runOnStream(Runnable task) {
+        try {
+            streamExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Diffuseur en cours d'arrêt
+            return false;
+        }
+    }
+
+    private static boolean sameRates(RateTable a, RateTable b) {
+        for (Currency currency : CURRENCIES) {
+            if (a.getRateScale(currency) != b.getRateScale(currency)
+                    || a.getUnscaledRate(currency) != b.getUnscaledRate(currency)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String snapshotJson(RateTable table, long version) {
+        StringBuilder json = header(table, version, 0);
+        appendRates(json, table, null);
+        return json.append('}').toString();
+    }
+
+    // Seuls les taux modifiés ou disparus depuis la version précédente
+    private static String deltaJson(RateTable previous, RateTable table, long previousVersion, long version) {
+        StringBuilder json = header(table, version, previousVersion);
+        appendRates(json, table, previous);
+        boolean first = true;
+        for (Currency currency : CURRENCIES) {
+            if (previous.hasRate(currency) && !table.hasRate(currency)) {
+                json.append(first ? ",\"removed\":[" : ",").append('"').append(currency.getCode()).append('"');
+                first = false;
+            }
+        }
+        if (!first) {
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    private static StringBuilder header(RateTable table, long version, long previousVersion) {
+        StringBuilder json = new StringBuilder(64 + 24 * CURRENCIES.length);
+        json.append("{\"version\":").append(version);
+        if (previousVersion != 0) {
+            json.append(",\"previous\":").append(previousVersion);
+        }
+        long timestamp = table.getTimestamp() > 0
+                ? TimeUnit.SECONDS.toMillis(table.getTimestamp()) : System.currentTimeMillis();
+        return json.append(",\"base\":\"").append(table.getBase().getCode())
+                .append("\",\"timestamp\":").append(timestamp);
+    }
+
+    private static void appendRates(StringBuilder json, RateTable table, RateTable previous) {
+        json.append(",\"rates\":{");
+        boolean first = true;
+        for (Currency currency : CURRENCIES) {
+            if (!table.hasRate(currency)) {
+                continue;
+            }
+            if (previous != null && previous.getRateScale(currency) == table.getRateScale(currency)
+                    && previous.getUnscaledRate(currency) == table.getUnscaledRate(currency)) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(currency.getCode()).append("\":").append(table.getRate(currency).toPlainString());
+        }
+        json.append('}');
+    }
+
+    private static byte[] frame(String event, long version, String data) {
+        return ("id: " + version + "\nevent: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        exchangeRateService.removeRateListener(this);
+        streamExecutor.shutdownNow();
+        fetchExecutor.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        logger.info("Diffusion des taux arrêtée");
+    }
+
+    // État d'une devise de base; n'est lu et modifié que par le thread de diffusion
+    private static final class Channel {
+        private final Currency base;
+        private final Set<Subscriber> subscribers = new HashSet<>();
+        private RateTable table;
+        private long version;
+        private long previousVersion;
+        private byte[] snapshotFrame;
+        private byte[] deltaFrame;
+        private boolean fetchPending;
+
+        private Channel(Currency base) {
+            this.base = base;
+        }
+    }
+
+    private final class Subscriber implements WriteListener, AsyncListener {
+        private final Channel channel;
+        private final AsyncContext asyncContext;
+        private final ServletOutputStream output;
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        // Dernière version envoyée; thread de diffusion uniquement
+        private long version;
+        private boolean flushPending;
+        private boolean closed;
+
+        private Subscriber(Channel channel, AsyncContext asyncContext, ServletOutputStream output) {
+            this.channel = channel;
+            this.asyncContext = asyncContext;
+            this.output = output;
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        synchronized void discard() {
+            closed = true;
+        }
+
+        synchronized boolean offer(byte[] frame) {
+            if (closed || queue.size() >= maxQueuedFrames) {
+                return false;
+            }
+            queue.add(frame);
+            return true;
+        }
+
+        // Écrit tant que le conteneur l'accepte sans bloquer; sinon onWritePossible reprendra
+        void drain() {
+            boolean failed = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    while (output.isReady()) {
+                        byte[] frame = queue.poll();
+                        if (frame == null) {
+                            if (!flushPending) {
+                                return;
+                            }
+                            flushPending = false;
+                            output.flush();
+                            continue;
+                        }
+                        output.write(frame);
+                        flushPending = true;
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Écriture impossible vers un abonné du flux {}: {}", channel.base, e.getMessage());
+                    failed = true;
+                }
+            }
+            if (failed) {
+                close();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queue.clear();
+            }
+            subscribers.remove(this);
+            release();
+            runOnStream(() -> channel.subscribers.remove(this));
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // Requête déjà terminée par le conteneur
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.service.ExchangeRateService;
+
+// Flux Server-Sent Events des tables de taux: instantané à la connexion, puis deltas à chaque rafraîchissement
+@WebServlet(urlPatterns = "/api/rates/stream", asyncSupported = true, loadOnStartup = 1)
+public class RateStreamServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(RateStreamServlet.class);
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private RateStreamBroadcaster broadcaster;
+    private String pivotCurrency;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.broadcaster = (RateStreamBroadcaster) getServletContext()
+                .getAttribute(AppContextListener.RATE_STREAM);
+        ExchangeRateService exchangeRateService = (ExchangeRateService) getServletContext()
+                .getAttribute(AppContextListener.EXCHANGE_RATE_SERVICE);
+        if (broadcaster == null || exchangeRateService == null) {
+            throw new ServletException("Diffusion des taux non initialisée");
+        }
+        this.pivotCurrency = exchangeRateService.getPivotCurrency();
+        logger.info("RateStreamServlet initialisé (devise par défaut: {}, {} abonnés au plus)",
+                pivotCurrency, broadcaster.getMaxSubscribers());
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, Last-Event-ID");
+
+        String baseParam = request.getParameter("base");
+        Currency base = Currency.lookup(baseParam == null || baseParam.isEmpty() ? pivotCurrency : baseParam);
+        if (base == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, "Devise non supportée: " + baseParam);
+            return;
+        }
+        if (!broadcaster.tryReserve()) {
+            response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+            sendErrorResponse(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Nombre maximal d'abonnés au flux atteint");
+            return;
+        }
+
+        try {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType("text/event-stream");
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Cache-Control", "no-cache");
+            // Désactive la mise en tampon des proxys inverses (nginx) pour ce flux
+            response.setHeader("X-Accel-Buffering", "no");
+
+            // Aucune expiration: la connexion reste ouverte jusqu'à la déconnexion du client
+            AsyncContext asyncContext = request.startAsync();
+            asyncContext.setTimeout(0);
+            broadcaster.subscribe(base, asyncContext, response.getOutputStream(),
+                    parseLastEventId(request.getHeader("Last-Event-ID")));
+        } catch (IOException | RuntimeException e) {
+            broadcaster.release();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, Last-Event-ID");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    // Version reçue avant une reconnexion automatique de l'EventSource; 0 si absente ou invalide
+    private static long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void sendErrorResponse(HttpServletResponse response, int statusCode, String message)
+            throws IOException {
+        ConversionJsonWriter json = new ConversionJsonWriter().writeError(statusCode, message, System.currentTimeMillis());
+        response.setStatus(statusCode);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(json.size());
+        json.writeTo(response.getOutputStream());
+    }
+}
@@ -0,0 +1,200 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.model.RateTable;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.PersistedRateStore;
+import com.currencyconverter.service.VersionedRates;
+
+// Export des tables en cache pour une conversion côté client, en JSON ou en binaire (format FXR1)
+@WebServlet(urlPatterns = "/api/rates", loadOnStartup = 1)
+public class RatesServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(RatesServlet.class);
+    private static final String BINARY_TYPE = "application/octet-stream";
+
+    private ExchangeRateService exchangeRateService;
+    // Encodages de la dernière version servie: sérialisés une seule fois par version
+    private volatile EncodedRates encoded;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.exchangeRateService = (ExchangeRateService) getServletContext()
+                .getAttribute(AppContextListener.EXCHANGE_RATE_SERVICE);
+        if (exchangeRateService == null) {
+            throw new ServletException("Service de taux de change non initialisé");
+        }
+        logger.info("RatesServlet initialisé");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match");
+        response.setHeader("Access-Control-Expose-Headers", "ETag");
+
+        // Lecture de la table pivot: la charge au premier appel et compte comme un accès, pour
+        // que les clients qui ne passent plus par /api/convert la maintiennent rafraîchie
+        try {
+            exchangeRateService.getExchangeRates(exchangeRateService.getPivotCurrency());
+        } catch (IOException e) {
+            logger.warn("Table pivot indisponible pour l'export des taux: {}", e.getMessage());
+        }
+
+        VersionedRates rates = exchangeRateService.getVersionedRates();
+        if (rates.isEmpty()) {
+            sendErrorResponse(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Service de taux de change temporairement indisponible");
+            return;
+        }
+
+        boolean binary = wantsBinary(request);
+        String etag = etag(rates.getVersion(), binary);
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "public, max-age=" + rates.getMaxAgeSeconds());
+        response.setHeader("Vary", "Accept");
+        if (matchesEtag(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        EncodedRates current = encode(rates);
+        byte[] body = binary ? current.binary : current.json;
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (binary) {
+            // Annule l'encodage posé par CharacterEncodingFilter: pas de charset sur un contenu binaire
+            response.setCharacterEncoding(null);
+            response.setContentType(BINARY_TYPE);
+        } else {
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, If-None-Match");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    // Comparaison faible (RFC 9110): seul le préfixe W/ est ignoré, de part et d'autre. Le reste de
+    // l'étiquette est opaque: l'ETag JSON ne valide pas la représentation binaire, ni l'inverse
+    static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String expected = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String etag(long version, boolean binary) {
+        return "\"" + version + (binary ? "-bin\"" : "\"");
+    }
+
+    private static boolean wantsBinary(HttpServletRequest request) {
+        String format = request.getParameter("format");
+        if (format != null) {
+            return "binary".equalsIgnoreCase(format);
+        }
+        String accept = request.getHeader("Accept");
+        return accept != null && accept.contains(BINARY_TYPE);
+    }
+
+    private EncodedRates encode(VersionedRates rates) {
+        EncodedRates current = encoded;
+        if (current != null && current.version == rates.getVersion()) {
+            return current;
+        }
+        current = new EncodedRates(rates.getVersion(), toJson(rates),
+                PersistedRateStore.encode(rates.getTables()));
+        encoded = current;
+        return current;
+    }
+
+    private byte[] toJson(VersionedRates rates) {
+        StringBuilder json = new StringBuilder(256 + rates.getTables().size() * 512);
+        json.append("{\"version\":").append(rates.getVersion())
+            .append(",\"pivot\":\"").append(exchangeRateService.getPivotCurrency())
+            .append("\",\"mode\":\"").append(exchangeRateService.isCrossRateMode() ? "cross" : "direct")
+            .append("\",\"tables\":{");
+        boolean firstTable = true;
+        for (Map.Entry<String, PersistedRateStore.StoredTable> entry : rates.getTables().entrySet()) {
+            RateTable table = entry.getValue().getRates();
+            if (!firstTable) {
+                json.append(',');
+            }
+            firstTable = false;
+            json.append('"').append(entry.getKey()).append("\":{\"fetchedAt\":")
+                .append(entry.getValue().getFetchedAtMillis())
+                .append(",\"timestamp\":").append(TimeUnit.SECONDS.toMillis(table.getTimestamp()))
+                .append(",\"rates\":{");
+            boolean firstRate = true;
+            for (Currency currency : Currency.values()) {
+                if (!table.hasRate(currency)) {
+                    continue;
+                }
+                if (!firstRate) {
+                    json.append(',');
+                }
+                firstRate = false;
+                json.append('"').append(currency.getCode()).append("\":").append(table.getRate(currency).toPlainString());
+            }
+            json.append("}}");
+        }
+        return json.append("}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void sendErrorResponse(HttpServletResponse response, int statusCode, String message)
+            throws IOException {
+        ConversionJsonWriter json = new ConversionJsonWriter().writeError(statusCode, message, System.currentTimeMillis());
+        response.setStatus(statusCode);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(json.size());
+        json.writeTo(response.getOutputStream());
+    }
+
+    private static final class EncodedRates {
+        private final long version;
+        private final byte[] json;
+        private final byte[] binary;
+
+        private EncodedRates(long version, byte[] json, byte[] binary) {
+            this.version = version;
+            this.json = json;
+            this.binary = binary;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.currencyconverter.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Sonde de disponibilité pour le répartiteur de charge: 503 tant que le préchauffage n'est pas terminé
+@WebServlet(urlPatterns = "/api/health/ready", loadOnStartup = 1)
+public class ReadinessServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(ReadinessServlet.class);
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    private StartupWarmup warmup;
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.warmup = (StartupWarmup) getServletContext().getAttribute(AppContextListener.STARTUP_WARMUP);
+        if (warmup == null) {
+            throw new ServletException("Préchauffage non initialisé");
+        }
+        logger.info("ReadinessServlet initialisé");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        boolean ready = warmup.isReady();
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"status\":\"").append(ready ? "ready" : "warming_up")
+            .append("\",\"phase\":\"").append(warmup.getPhase().getLabel())
+            .append("\",\"tablesLoaded\":").append(warmup.getTablesLoaded());
+        if (ready) {
+            json.append(",\"conversions\":").append(warmup.getConversions())
+                .append(",\"durationMs\":").append(warmup.getDurationMillis());
+        }
+        byte[] body = json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+
+        response.setStatus(ready ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        if (!ready) {
+            response.setHeader("Retry-After", Integer.toString(RETRY_AFTER_SECONDS));
+        }
+        response.setHeader("Cache-Control", "no-store");
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
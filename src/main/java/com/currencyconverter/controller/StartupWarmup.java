@@ -0,0 +1,198 @@
+package com.currencyconverter.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.ConversionResult;
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.service.CurrencyConversionService;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.util.ConfigUtils;
+
+/**
+ * Préchauffage au démarrage, sur un thread dédié: l'instance ne reçoit du trafic (via
+ * /api/health/ready) qu'une fois ses tables chargées et son chemin de conversion compilé par le JIT.
+ *
+ * Les tables sont d'abord récupérées en parallèle: la table pivot en mode croisé, dont toutes les
+ * paires sont dérivées, et chaque devise de base en mode direct. Une boucle de conversions
+ * synthétiques parcourt ensuite toutes les paires, sérialisation JSON comprise. Ni les chargements
+ * ni les conversions ne comptent comme des accès au cache: métriques, éviction et rafraîchissement
+ * anticipé ne reflètent que le vrai trafic, mais le code exécuté, donc compilé, est le même.
+ */
+public final class StartupWarmup implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+    private static final int DEFAULT_ITERATIONS = 20000;
+    private static final long DEFAULT_TIMEOUT_SECONDS = 30;
+    // Montants variés: chemin rapide sur longs, décimales, et montant hors de la plage du chemin rapide
+    private static final String[] AMOUNTS = {"1", "100", "0.5", "1234.56", "99999.9999", "12345678901234567890.12"};
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    public enum Phase {
+        PREFETCH("prefetch"),
+        CONVERSIONS("conversions"),
+        READY("ready");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final ExchangeRateService exchangeRateService;
+    private final boolean enabled;
+    private final int iterations;
+    private final long timeoutNanos;
+    private final Thread thread;
+    private volatile Phase phase = Phase.PREFETCH;
+    private volatile int tablesLoaded;
+    private volatile int conversions;
+    private volatile long durationMillis;
+
+    public StartupWarmup(ExchangeRateService exchangeRateService) {
+        this.exchangeRateService = exchangeRateService;
+        this.enabled = ConfigUtils.getBoolean("currency.warmup.enabled", true);
+        this.iterations = ConfigUtils.getInt("currency.warmup.iterations", DEFAULT_ITERATIONS);
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(
+                ConfigUtils.getLong("currency.warmup.timeoutSeconds", DEFAULT_TIMEOUT_SECONDS));
+        this.thread = Thread.ofPlatform().daemon().name("startup-warmup").unstarted(this::run);
+    }
+
+    public void start() {
+        if (!enabled) {
+            phase = Phase.READY;
+            logger.info("Préchauffage désactivé: instance prête immédiatement");
+            return;
+        }
+        thread.start();
+    }
+
+    public boolean isReady() {
+        return phase == Phase.READY;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public int getTablesLoaded() {
+        return tablesLoaded;
+    }
+
+    public int getConversions() {
+        return conversions;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+        try {
+            prefetch(deadline);
+            // Sans table, chaque conversion retenterait les fournisseurs: inutile de les solliciter à vide
+            if (tablesLoaded > 0) {
+                phase = Phase.CONVERSIONS;
+                convert(deadline);
+            } else {
+                logger.warn("Préchauffage des conversions ignoré: aucune table de taux chargée");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Préchauffage interrompu par une erreur: {}", e.getMessage());
+        }
+        // Prête même si des tables manquent: les requêtes les récupéreront, comme sur une instance déjà chaude
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        phase = Phase.READY;
+        logger.info("Préchauffage terminé en {} ms: {} tables chargées, {} conversions", durationMillis,
+                tablesLoaded, conversions);
+    }
+
+    private void prefetch(long deadline) throws InterruptedException {
+        List<Callable<Object>> fetches = new ArrayList<>();
+        if (exchangeRateService.isCrossRateMode()) {
+            fetches.add(() -> exchangeRateService.warm(exchangeRateService.getPivotCurrency()));
+        } else {
+            for (Currency base : CURRENCIES) {
+                fetches.add(() -> exchangeRateService.warm(base.getCode()));
+            }
+        }
+
+        // Pas d'interruption au délai: une récupération en cours est partagée avec les vraies requêtes
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("warmup-fetch-", 0).factory());
+        List<Future<Object>> results = new ArrayList<>();
+        for (Callable<Object> fetch : fetches) {
+            results.add(executor.submit(fetch));
+        }
+        executor.shutdown();
+        for (Future<Object> result : results) {
+            try {
+                result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("Préchauffage: récupération des taux non terminée dans le délai");
+            } catch (ExecutionException e) {
+                logger.warn("Préchauffage: échec de la récupération des taux: {}", e.getCause().getMessage());
+            }
+        }
+        // Les taux fixes du mode dégradé ne sont pas mis en cache: seules les vraies tables sont comptées
+        tablesLoaded = exchangeRateService.getVersionedRates().getTables().size();
+    }
+
+    private void convert(long deadline) throws InterruptedException {
+        ConversionJsonWriter json = new ConversionJsonWriter();
+        long checksum = 0;
+        int done = 0;
+        try (CurrencyConversionService warmupService = CurrencyConversionService.forWarmup(exchangeRateService)) {
+            for (int i = 0; i < iterations; i++) {
+                // Vérification du délai et de l'arrêt toutes les 1024 conversions seulement
+                if ((i & 1023) == 0) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    if (System.nanoTime() - deadline > 0) {
+                        logger.warn("Préchauffage: délai atteint après {} conversions", done);
+                        break;
+                    }
+                }
+                Currency from = CURRENCIES[i % CURRENCIES.length];
+                Currency to = CURRENCIES[(i / CURRENCIES.length) % CURRENCIES.length];
+                try {
+                    ConversionResult result = warmupService.convertCurrency(from.getCode(), to.getCode(),
+                            AMOUNTS[i % AMOUNTS.length]);
+                    checksum += json.writeConversionResult(result).size();
+                    done++;
+                } catch (IOException | IllegalArgumentException e) {
+                    logger.debug("Préchauffage: conversion {} -> {} impossible: {}", from, to, e.getMessage());
+                }
+            }
+        }
+        conversions = done;
+        logger.debug("Préchauffage: {} octets JSON produits", checksum);
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,77 @@
+package com.currencyconverter.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Histogramme à seaux exponentiels (puissances de 2 en microsecondes, de 1 µs à ~17 s)
+public class LatencyHistogram {
+    private static final int BUCKET_COUNT = 25;
+    
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        // Seau i: latence <= 2^i µs; le dernier seau reçoit tout ce qui dépasse
+        int index = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+        buckets[Math.min(index, BUCKET_COUNT)].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+    
+    public long recordSince(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        record(elapsed);
+        return elapsed;
+    }
+    
+    public int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+    
+    public double getUpperBoundSeconds(int bucket) {
+        return (1L << bucket) / 1_000_000.0;
+    }
+    
+    // Nombre d'observations <= getUpperBoundSeconds(bucket), au format cumulatif de Prometheus
+    public long[] getCumulativeCounts() {
+        long[] cumulative = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets[i].sum();
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1_000_000_000.0;
+    }
+    
+    // Estimation du quantile q (0..1) par la borne supérieure du seau qui le contient
+    public long getQuantileNanos(double quantile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i <= BUCKET_COUNT; i++) {
+            seen += buckets[i].sum();
+            if (seen >= target) {
+                return (1L << Math.min(i, BUCKET_COUNT)) * 1000;
+            }
+        }
+        return (1L << BUCKET_COUNT) * 1000;
+    }
+}
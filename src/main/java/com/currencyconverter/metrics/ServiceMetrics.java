@@ -0,0 +1,182 @@
+package com.currencyconverter.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.currencyconverter.service.RateSource;
+
+// Compteurs du chemin critique: LongAdder pour éviter la contention entre threads
+public class ServiceMetrics {
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheStaleHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder coalescedWaits = new LongAdder();
+    private final LongAdder backgroundRefreshes = new LongAdder();
+    private final LongAdder degradedServes = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+    private final LongAdder cacheExpirations = new LongAdder();
+    
+    private final LongAdder[] upstreamSuccesses = newAdders(RateSource.values().length);
+    private final LongAdder[] upstreamFailures = newAdders(RateSource.values().length);
+    private final LongAdder[] tablesServed = newAdders(RateSource.values().length);
+    private final LongAdder[] circuitRejections = newAdders(RateSource.values().length);
+    private final LongAdder hedgedRequests = new LongAdder();
+    private final LatencyHistogram[] upstreamLatency = new LatencyHistogram[RateSource.values().length];
+    
+    private final LongAdder conversions = new LongAdder();
+    private final LongAdder conversionErrors = new LongAdder();
+    private final LongAdder asyncConversions = new LongAdder();
+    private final LongAdder asyncTimeouts = new LongAdder();
+    private final LatencyHistogram conversionLatency = new LatencyHistogram();
+    
+    public ServiceMetrics() {
+        for (int i = 0; i < upstreamLatency.length; i++) {
+            upstreamLatency[i] = new LatencyHistogram();
+        }
+    }
+    
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+    
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+    
+    public void recordStaleHit() {
+        cacheStaleHits.increment();
+    }
+    
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+    
+    public void recordCoalescedWait() {
+        coalescedWaits.increment();
+    }
+    
+    public void recordBackgroundRefresh() {
+        backgroundRefreshes.increment();
+    }
+    
+    public void recordDegradedServe() {
+        degradedServes.increment();
+    }
+    
+    public void recordCacheEviction() {
+        cacheEvictions.increment();
+    }
+    
+    public void recordCacheExpiration() {
+        cacheExpirations.increment();
+    }
+    
+    public void recordUpstreamCall(RateSource provider, long elapsedNanos, boolean success) {
+        upstreamLatency[provider.ordinal()].record(elapsedNanos);
+        (success ? upstreamSuccesses : upstreamFailures)[provider.ordinal()].increment();
+    }
+    
+    public void recordCircuitRejection(RateSource provider) {
+        circuitRejections[provider.ordinal()].increment();
+    }
+    
+    public void recordHedgedRequest() {
+        hedgedRequests.increment();
+    }
+    
+    public void recordTableServed(RateSource source) {
+        tablesServed[source.ordinal()].increment();
+    }
+    
+    public void recordConversion(long elapsedNanos, boolean success) {
+        conversionLatency.record(elapsedNanos);
+        (success ? conversions : conversionErrors).increment();
+    }
+    
+    public void recordAsyncConversion() {
+        asyncConversions.increment();
+    }
+    
+    public void recordAsyncTimeout() {
+        asyncTimeouts.increment();
+    }
+    
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+    
+    public long getCacheStaleHits() {
+        return cacheStaleHits.sum();
+    }
+    
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+    
+    public long getCoalescedWaits() {
+        return coalescedWaits.sum();
+    }
+    
+    public long getBackgroundRefreshes() {
+        return backgroundRefreshes.sum();
+    }
+    
+    public long getDegradedServes() {
+        return degradedServes.sum();
+    }
+    
+    public long getCacheEvictions() {
+        return cacheEvictions.sum();
+    }
+    
+    public long getCacheExpirations() {
+        return cacheExpirations.sum();
+    }
+    
+    public long getUpstreamSuccesses(RateSource provider) {
+        return upstreamSuccesses[provider.ordinal()].sum();
+    }
+    
+    public long getUpstreamFailures(RateSource provider) {
+        return upstreamFailures[provider.ordinal()].sum();
+    }
+    
+    public LatencyHistogram getUpstreamLatency(RateSource provider) {
+        return upstreamLatency[provider.ordinal()];
+    }
+    
+    public long getCircuitRejections(RateSource provider) {
+        return circuitRejections[provider.ordinal()].sum();
+    }
+    
+    public long getHedgedRequests() {
+        return hedgedRequests.sum();
+    }
+    
+    public long getTablesServed(RateSource source) {
+        return tablesServed[source.ordinal()].sum();
+    }
+    
+    public long getConversions() {
+        return conversions.sum();
+    }
+    
+    public long getConversionErrors() {
+        return conversionErrors.sum();
+    }
+    
+    public long getAsyncConversions() {
+        return asyncConversions.sum();
+    }
+    
+    public long getAsyncTimeouts() {
+        return asyncTimeouts.sum();
+    }
+    
+    public LatencyHistogram getConversionLatency() {
+        return conversionLatency;
+    }
+}
@@ -0,0 +1,29 @@
+package com.currencyconverter.model;
+
+public class BulkConversionSummary {
+    private final long rows;
+    private final long failedRows;
+    private final long elapsedMillis;
+
+    public BulkConversionSummary(long rows, long failedRows, long elapsedMillis) {
+        this.rows = rows;
+        this.failedRows = failedRows;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000 : rows * 1000 / elapsedMillis;
+    }
+}
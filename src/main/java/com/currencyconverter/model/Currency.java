@@ -18,6 +18,15 @@ public enum Currency {
     NZD("NZD", "New Zealand Dollar", "NZ$"),
     XOF("XOF", "Francs CFA", "CFA");
 
+    // Index direct code -> devise (26^3 cases) pour une recherche sans allocation ni exception
+    private static final Currency[] BY_CODE = new Currency[26 * 26 * 26];
+    
+    static {
+        for (Currency currency : values()) {
+            BY_CODE[codeIndex(currency.code)] = currency;
+        }
+    }
+
     private final String code;
     private final String name;
     private final String symbol;
@@ -41,11 +50,36 @@ public enum Currency {
     }
 
     public static Currency fromCode(String code) {
-        for (Currency currency : values()) {
-            if (currency.code.equalsIgnoreCase(code)) {
-                return currency;
+        Currency currency = lookup(code);
+        if (currency == null) {
+            throw new IllegalArgumentException("Devise non supportée: " + code);
+        }
+        return currency;
+    }
+
+    // Retourne null si le code n'est pas supporté (insensible à la casse)
+    public static Currency lookup(String code) {
+        if (code == null || code.length() != 3) {
+            return null;
+        }
+        int index = codeIndex(code);
+        return index < 0 ? null : BY_CODE[index];
+    }
+
+    private static int codeIndex(String code) {
+        int index = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = code.charAt(i);
+            int letter;
+            if (c >= 'A' && c <= 'Z') {
+                letter = c - 'A';
+            } else if (c >= 'a' && c <= 'z') {
+                letter = c - 'a';
+            } else {
+                return -1;
             }
+            index = index * 26 + letter;
         }
-        throw new IllegalArgumentException("Devise non supportée: " + code);
+        return index;
     }
 }
\ No newline at end of file
@@ -1,54 +0,0 @@
-package com.currencyconverter.model;
-
-import java.math.BigDecimal;
-import java.util.Map;
-
-public class ExchangeRateResponse {
-    private boolean success;
-    private String base;
-    private Map<String, BigDecimal> rates;
-    private long timestamp;
-    private String error;
-
-    public ExchangeRateResponse() {}
-
-    public boolean isSuccess() {
-        return success;
-    }
-
-    public void setSuccess(boolean success) {
-        this.success = success;
-    }
-
-    public String getBase() {
-        return base;
-    }
-
-    public void setBase(String base) {
-        this.base = base;
-    }
-
-    public Map<String, BigDecimal> getRates() {
-        return rates;
-    }
-
-    public void setRates(Map<String, BigDecimal> rates) {
-        this.rates = rates;
-    }
-
-    public long getTimestamp() {
-        return timestamp;
-    }
-
-    public void setTimestamp(long timestamp) {
-        this.timestamp = timestamp;
-    }
-
-    public String getError() {
-        return error;
-    }
-
-    public void setError(String error) {
-        this.error = error;
-    }
-}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.currencyconverter.model;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Table de taux immuable d'une devise de base, limitée aux devises supportées.
+ *
+ * Chaque taux est stocké en entier mis à l'échelle (valeur = unscaled × 10^-scale), indexé par
+ * {@code Currency.ordinal()}: la valeur et l'échelle d'origine du fournisseur sont conservées
+ * exactement, sans BigDecimal ni clé String par taux. Une échelle {@link #MISSING_SCALE} signale
+ * un taux absent.
+ */
+public final class RateTable {
+    public static final byte MISSING_SCALE = -1;
+    public static final int MAX_DIGITS = 18;
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final MathContext MAX_PRECISION = new MathContext(MAX_DIGITS, RoundingMode.HALF_EVEN);
+    // En-tête d'objet et champs (JVM 64 bits à références compressées), puis en-tête d'un tableau
+    private static final long OBJECT_BYTES = 40;
+    private static final long ARRAY_HEADER_BYTES = 16;
+
+    private final Currency base;
+    private final long timestamp;
+    private final long[] unscaledRates;
+    private final byte[] rateScales;
+
+    // Les tableaux sont copiés: la table ne peut pas être modifiée après construction
+    public RateTable(Currency base, long timestamp, long[] unscaledRates, byte[] rateScales) {
+        if (unscaledRates.length != CURRENCIES.length || rateScales.length != CURRENCIES.length) {
+            throw new IllegalArgumentException("Une table de taux contient une case par devise supportée");
+        }
+        this.base = base;
+        this.timestamp = timestamp;
+        this.unscaledRates = unscaledRates.clone();
+        this.rateScales = rateScales.clone();
+    }
+
+    // Taux par code devise; les codes non supportés et les taux non positifs sont ignorés
+    public static RateTable fromRates(Currency base, long timestamp, Map<String, BigDecimal> rates) {
+        long[] unscaled = new long[CURRENCIES.length];
+        byte[] scales = newScales();
+        for (Map.Entry<String, BigDecimal> rate : rates.entrySet()) {
+            Currency currency = Currency.lookup(rate.getKey());
+            if (currency != null) {
+                putRate(unscaled, scales, currency, rate.getValue());
+            }
+        }
+        return new RateTable(base, timestamp, unscaled, scales);
+    }
+
+    // Tableau d'échelles initialisé à "absent", à remplir par putRate
+    public static byte[] newScales() {
+        byte[] scales = new byte[CURRENCIES.length];
+        Arrays.fill(scales, MISSING_SCALE);
+        return scales;
+    }
+
+    // Place un taux dans les tableaux; au-delà de 18 chiffres significatifs il est arrondi.
+    // Renvoie false (taux laissé absent) s'il n'est pas positif ou reste hors plage
+    public static boolean putRate(long[] unscaled, byte[] scales, Currency currency, BigDecimal rate) {
+        if (rate == null || rate.signum() <= 0) {
+            return false;
+        }
+        BigDecimal value = rate.precision() > MAX_DIGITS ? rate.round(MAX_PRECISION) : rate;
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        if (value.scale() > MAX_DIGITS || value.precision() > MAX_DIGITS) {
+            return false;
+        }
+        unscaled[currency.ordinal()] = value.unscaledValue().longValue();
+        scales[currency.ordinal()] = (byte) value.scale();
+        return true;
+    }
+
+    public Currency getBase() {
+        return base;
+    }
+
+    // Horodatage du fournisseur (secondes epoch), 0 s'il est inconnu
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean hasRate(Currency currency) {
+        return rateScales[currency.ordinal()] != MISSING_SCALE;
+    }
+
+    // Retourne null si la devise est absente de la table
+    public BigDecimal getRate(Currency currency) {
+        int scale = rateScales[currency.ordinal()];
+        return scale == MISSING_SCALE ? null : BigDecimal.valueOf(unscaledRates[currency.ordinal()], scale);
+    }
+
+    public long getUnscaledRate(Currency currency) {
+        return unscaledRates[currency.ordinal()];
+    }
+
+    // Échelle du taux, ou MISSING_SCALE s'il est absent
+    public int getRateScale(Currency currency) {
+        return rateScales[currency.ordinal()];
+    }
+
+    public int getRateCount() {
+        int count = 0;
+        for (byte scale : rateScales) {
+            if (scale != MISSING_SCALE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Empreinte estimée en mémoire: l'objet et ses deux tableaux, d'après leur taille réelle.
+    // Les taux sont stockés en cases fixes: un taux absent occupe autant qu'un taux présent.
+    public long estimateHeapBytes() {
+        return OBJECT_BYTES + arrayBytes(8L * unscaledRates.length) + arrayBytes(rateScales.length);
+    }
+
+    private static long arrayBytes(long payloadBytes) {
+        return (ARRAY_HEADER_BYTES + payloadBytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,202 @@
+package com.currencyconverter.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+/**
+ * Cache borné en nombre d'entrées et en poids (octets estimés), au-dessus d'une ConcurrentHashMap.
+ *
+ * Les lectures restent sans verrou. Chaque écriture met à jour le poids total dans la même
+ * opération atomique que la map; si une borne est dépassée, les entrées évinçables les moins
+ * récemment utilisées sont retirées, hors clé épinglée et hors entrée qui vient d'être écrite.
+ * Le poids d'une valeur ne doit pas changer tant qu'elle est dans le cache.
+ */
+final class BoundedCache<K, V extends BoundedCache.Entry> {
+
+    interface Entry {
+        long getWeight();
+
+        long getLastAccessMillis();
+
+        // Faux pour une entrée dont d'autres threads attendent le résultat
+        boolean isEvictable();
+    }
+
+    interface RemovalListener<K, V> {
+        void onRemoval(K key, V value, boolean expired);
+    }
+
+    private final ConcurrentHashMap<K, V> map = new ConcurrentHashMap<>();
+    private final Set<K> pinnedKeys = ConcurrentHashMap.newKeySet();
+    private final int maxEntries;
+    private final long maxWeight;
+    private final RemovalListener<K, V> removalListener;
+    private final AtomicLong weight = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    BoundedCache(int maxEntries, long maxWeight, RemovalListener<K, V> removalListener) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("Les bornes du cache doivent être positives");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.removalListener = removalListener;
+    }
+
+    // Clé jamais évincée pour raison de taille (elle reste soumise à l'expiration)
+    void pin(K key) {
+        pinnedKeys.add(key);
+    }
+
+    V get(K key) {
+        return map.get(key);
+    }
+
+    V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        V result = map.compute(key, (k, existing) -> {
+            V next = remapping.apply(k, existing);
+            adjustWeight(existing, next);
+            return next;
+        });
+        evictIfNeeded(key);
+        return result;
+    }
+
+    V putIfAbsent(K key, V value) {
+        AtomicBoolean inserted = new AtomicBoolean();
+        V result = map.computeIfAbsent(key, k -> {
+            adjustWeight(null, value);
+            inserted.set(true);
+            return value;
+        });
+        if (inserted.get()) {
+            evictIfNeeded(key);
+            return null;
+        }
+        return result;
+    }
+
+    boolean replace(K key, V expected, V value) {
+        AtomicBoolean replaced = new AtomicBoolean();
+        map.computeIfPresent(key, (k, existing) -> {
+            if (existing != expected) {
+                return existing;
+            }
+            adjustWeight(existing, value);
+            replaced.set(true);
+            return value;
+        });
+        if (replaced.get()) {
+            evictIfNeeded(key);
+        }
+        return replaced.get();
+    }
+
+    boolean remove(K key, V expected) {
+        AtomicBoolean removed = new AtomicBoolean();
+        map.computeIfPresent(key, (k, existing) -> {
+            if (existing != expected) {
+                return existing;
+            }
+            adjustWeight(existing, null);
+            removed.set(true);
+            return null;
+        });
+        return removed.get();
+    }
+
+    // Retire les entrées expirées selon le prédicat; renvoie leur nombre
+    int expireIf(BiPredicate<? super K, ? super V> expired) {
+        int removed = 0;
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            K key = entry.getKey();
+            V value = entry.getValue();
+            if (expired.test(key, value) && remove(key, value)) {
+                removed++;
+                notifyRemoval(key, value, true);
+            }
+        }
+        return removed;
+    }
+
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+    }
+
+    void clear() {
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    long getWeight() {
+        return weight.get();
+    }
+
+    int getMaxEntries() {
+        return maxEntries;
+    }
+
+    long getMaxWeight() {
+        return maxWeight;
+    }
+
+    private void adjustWeight(V previous, V next) {
+        long delta = (next == null ? 0 : next.getWeight()) - (previous == null ? 0 : previous.getWeight());
+        if (delta != 0) {
+            weight.addAndGet(delta);
+        }
+    }
+
+    private boolean overBudget() {
+        return map.size() > maxEntries || weight.get() > maxWeight;
+    }
+
+    // LRU par balayage: le cache ne contient que quelques dizaines de tables, un parcours
+    // complet coûte moins que la tenue d'une liste d'accès sur le chemin de lecture
+    private void evictIfNeeded(K writtenKey) {
+        if (!overBudget()) {
+            return;
+        }
+        synchronized (evictionLock) {
+            while (overBudget()) {
+                K victimKey = null;
+                V victim = null;
+                for (Map.Entry<K, V> entry : map.entrySet()) {
+                    V value = entry.getValue();
+                    if (entry.getKey().equals(writtenKey) || pinnedKeys.contains(entry.getKey())
+                            || !value.isEvictable()) {
+                        continue;
+                    }
+                    if (victim == null || value.getLastAccessMillis() < victim.getLastAccessMillis()) {
+                        victimKey = entry.getKey();
+                        victim = value;
+                    }
+                }
+                if (victim == null) {
+                    // Rien d'évinçable (entrées en attente ou épinglées): dépassement temporaire toléré
+                    return;
+                }
+                if (remove(victimKey, victim)) {
+                    notifyRemoval(victimKey, victim, false);
+                }
+            }
+        }
+    }
+
+    private void notifyRemoval(K key, V value, boolean expired) {
+        if (removalListener != null) {
+            removalListener.onRemoval(key, value, expired);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.currencyconverter.service;
+
+import com.currencyconverter.util.ConfigUtils;
+
+/**
+ * Disjoncteur par fournisseur de taux.
+ *
+ * Après {@code failureThreshold} échecs consécutifs le fournisseur est ignoré pendant
+ * {@code openMillis}; un seul appel d'essai est ensuite autorisé (semi-ouvert), qui referme
+ * le disjoncteur s'il réussit et le rouvre sinon.
+ */
+public class CircuitBreaker {
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final long DEFAULT_OPEN_MILLIS = 30000;
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+    
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+    
+    public static CircuitBreaker fromSystemProperties() {
+        return new CircuitBreaker(
+                ConfigUtils.getInt("currency.breaker.failureThreshold", DEFAULT_FAILURE_THRESHOLD),
+                ConfigUtils.getLong("currency.breaker.openMs", DEFAULT_OPEN_MILLIS));
+    }
+    
+    // Vrai si un appel peut partir; en fin de période d'ouverture, seul le premier appelant obtient l'essai
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAtMillis >= openMillis) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+    
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+    
+    // Renvoie vrai si cet échec vient d'ouvrir le disjoncteur
+    public synchronized boolean recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtMillis = System.currentTimeMillis();
+            return true;
+        }
+        return false;
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,306 @@
+package com.currencyconverter.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.metrics.ServiceMetrics;
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.util.ConfigUtils;
+
+/**
+ * Mode cluster: les instances se partagent les tables pour n'interroger les fournisseurs publics
+ * qu'une fois par rafraîchissement, quel que soit le nombre de réplicas.
+ *
+ * Chaque devise de base a un propriétaire désigné par hachage de rendez-vous (HRW) sur la liste des
+ * membres: configurées avec la même liste, toutes les instances s'accordent sans élection. Sur un
+ * défaut de cache, une instance interroge dans l'ordre les membres mieux classés qu'elle et ne
+ * récupère la table elle-même que si aucun ne répond. Une requête ne remonte ainsi que vers des
+ * membres mieux classés (aucune boucle possible), et si le propriétaire tombe, le suivant dans le
+ * classement prend le relais. Chaque pair est derrière son propre disjoncteur.
+ *
+ * /internal/rates peut forcer des récupérations bloquantes: seuls les membres du cluster y ont accès,
+ * authentifiés par un secret partagé s'il est configuré, sinon par leur adresse.
+ */
+public class ClusterPeers {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterPeers.class);
+    public static final String PEER_PATH = "/internal/rates";
+    // Délai pendant lequel le demandeur attend la réponse: le pair en déduit le sien
+    public static final String TIMEOUT_HEADER = "X-Cluster-Timeout-Ms";
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+    // Au plus une nouvelle résolution DNS des pairs par intervalle, sur une adresse inconnue
+    private static final long RESOLVE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long DEFAULT_TIMEOUT_MS = 5000;
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final String self;
+    private final List<String> peers;
+    private final List<CircuitBreaker> circuitBreakers;
+    // Pour chaque devise de base (ordinal), index des pairs mieux classés que cette instance, propriétaire en tête
+    private final int[][] peersAbove;
+    private final CloseableHttpClient httpClient;
+    private final long timeoutMs;
+    private final byte[] secret;
+    private volatile Set<String> peerAddresses;
+    private volatile long resolvedAtNanos;
+    private final LongAdder peerMisses = new LongAdder();
+    private final LongAdder staleTables = new LongAdder();
+    private final LongAdder rejectedCallers = new LongAdder();
+
+    // secret vide: les appelants sont reconnus à leur adresse, résolue depuis la liste des membres
+    public ClusterPeers(String self, List<String> peers, CloseableHttpClient httpClient, long timeoutMs,
+                        String secret) {
+        this.self = normalize(self);
+        List<String> others = new ArrayList<>();
+        for (String peer : peers) {
+            String url = normalize(peer);
+            if (!url.isEmpty() && !url.equals(this.self) && !others.contains(url)) {
+                others.add(url);
+            }
+        }
+        this.peers = Collections.unmodifiableList(others);
+        this.circuitBreakers = new ArrayList<>();
+        for (int i = 0; i < others.size(); i++) {
+            circuitBreakers.add(CircuitBreaker.fromSystemProperties());
+        }
+        this.httpClient = httpClient;
+        this.timeoutMs = timeoutMs;
+        this.secret = secret == null || secret.isEmpty() ? null : secret.getBytes(StandardCharsets.UTF_8);
+        if (this.secret == null) {
+            this.peerAddresses = resolvePeerAddresses();
+            this.resolvedAtNanos = System.nanoTime();
+        }
+
+        this.peersAbove = new int[CURRENCIES.length][];
+        for (Currency base : CURRENCIES) {
+            peersAbove[base.ordinal()] = rankPeersAbove(base.getCode());
+        }
+    }
+
+    // Retourne null si le mode cluster n'est pas configuré
+    static ClusterPeers fromSystemProperties(CloseableHttpClient httpClient) {
+        String peerList = ConfigUtils.getString("currency.cluster.peers", "");
+        if (peerList.isEmpty()) {
+            return null;
+        }
+        String self = ConfigUtils.getString("currency.cluster.self", "");
+        if (self.isEmpty()) {
+            logger.warn("Mode cluster désactivé: currency.cluster.self (URL de cette instance) est requis");
+            return null;
+        }
+        ClusterPeers cluster = new ClusterPeers(self, List.of(peerList.split(",")), httpClient,
+                ConfigUtils.getLong("currency.cluster.timeoutMs", DEFAULT_TIMEOUT_MS),
+                ConfigUtils.getString("currency.cluster.secret", ""));
+        logger.info("Mode cluster actif: {} parmi {} membres (appelants reconnus par {})", cluster.self,
+                cluster.peers.size() + 1, cluster.secret != null ? "secret partagé" : "adresse");
+        return cluster;
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    // Délai d'une requête vers un pair quand cette instance n'en sert pas elle-même une autre
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public CircuitBreaker.State getPeerState(int index) {
+        return circuitBreakers.get(index).getState();
+    }
+
+    // Vrai si cette instance est la première du classement pour la devise
+    public boolean isOwner(Currency base) {
+        return peersAbove[base.ordinal()].length == 0;
+    }
+
+    // Récupérations reportées sur les fournisseurs faute de table fraîche chez un pair mieux classé
+    public long getPeerMisses() {
+        return peerMisses.sum();
+    }
+
+    // Tables reçues d'un pair mais trop anciennes pour être reprises
+    public long getStaleTables() {
+        return staleTables.sum();
+    }
+
+    // Requêtes sur /internal/rates refusées: appelant hors du cluster ou secret invalide
+    public long getRejectedCallers() {
+        return rejectedCallers.sum();
+    }
+
+    // Vrai si l'appelant est un membre du cluster: secret partagé s'il est configuré, sinon adresse d'un pair
+    public boolean isTrustedCaller(String remoteAddress, String secretHeader) {
+        boolean trusted;
+        if (secret != null) {
+            trusted = secretHeader != null
+                    && MessageDigest.isEqual(secret, secretHeader.getBytes(StandardCharsets.UTF_8));
+        } else {
+            trusted = peerAddresses.contains(remoteAddress);
+            // Adresse inconnue: un pair a peut-être changé d'adresse depuis la dernière résolution
+            if (!trusted && System.nanoTime() - resolvedAtNanos > RESOLVE_INTERVAL_NANOS) {
+                resolvedAtNanos = System.nanoTime();
+                peerAddresses = resolvePeerAddresses();
+                trusted = peerAddresses.contains(remoteAddress);
+            }
+        }
+        if (!trusted) {
+            rejectedCallers.increment();
+        }
+        return trusted;
+    }
+
+    // Table d'un pair mieux classé, plus récente que maxAgeMillis (le TTL souple: une table plus ancienne
+    // serait déjà à rafraîchir); null si aucun n'a pu la fournir. requestTimeoutMs borne chaque requête
+    PersistedRateStore.StoredTable fetch(String baseCurrency, long maxAgeMillis, long requestTimeoutMs,
+                                         ServiceMetrics metrics) {
+        Currency base = Currency.lookup(baseCurrency);
+        if (base == null || peersAbove[base.ordinal()].length == 0) {
+            return null;
+        }
+        for (int index : peersAbove[base.ordinal()]) {
+            CircuitBreaker breaker = circuitBreakers.get(index);
+            if (!breaker.tryAcquire()) {
+                metrics.recordCircuitRejection(RateSource.PEER);
+                continue;
+            }
+            String peer = peers.get(index);
+            long start = System.nanoTime();
+            try {
+                PersistedRateStore.StoredTable table = fetchFromPeer(peer, base.getCode(), requestTimeoutMs);
+                metrics.recordUpstreamCall(RateSource.PEER, System.nanoTime() - start, true);
+                breaker.recordSuccess();
+                if (System.currentTimeMillis() - table.getFetchedAtMillis() < maxAgeMillis) {
+                    logger.info("Taux de {} obtenus auprès du pair {}", base, peer);
+                    return table;
+                }
+                staleTables.increment();
+                logger.debug("Table {} du pair {} trop ancienne, ignorée", base, peer);
+            } catch (IOException | RuntimeException e) {
+                metrics.recordUpstreamCall(RateSource.PEER, System.nanoTime() - start, false);
+                if (breaker.recordFailure()) {
+                    logger.warn("Disjoncteur ouvert pour le pair {}", peer);
+                }
+                logger.warn("Échec de la récupération des taux de {} auprès du pair {}: {}", base, peer, e.getMessage());
+            }
+        }
+        peerMisses.increment();
+        return null;
+    }
+
+    private PersistedRateStore.StoredTable fetchFromPeer(String peer, String baseCurrency, long requestTimeoutMs)
+            throws IOException {
+        HttpGet request = new HttpGet(peer + PEER_PATH + "?base=" + baseCurrency);
+        // Un pair lent attend sans doute son propre fournisseur: le délai de lecture suit celui d'une récupération
+        int timeout = (int) Math.max(1, requestTimeoutMs);
+        request.setConfig(RequestConfig.custom()
+                .setConnectTimeout(Math.min(timeout, 1000))
+                .setConnectionRequestTimeout(Math.min(timeout, 1000))
+                .setSocketTimeout(timeout)
+                .build());
+        request.setHeader("Accept", "application/octet-stream");
+        request.setHeader(TIMEOUT_HEADER, String.valueOf(timeout));
+        if (secret != null) {
+            request.setHeader(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8));
+        }
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            int status = response.getStatusLine().getStatusCode();
+            if (status != 200 || entity == null) {
+                EntityUtils.consumeQuietly(entity);
+                throw new IOException("Réponse du pair: " + status);
+            }
+            Map<String, PersistedRateStore.StoredTable> tables;
+            try {
+                tables = PersistedRateStore.decode(ByteBuffer.wrap(EntityUtils.toByteArray(entity)));
+            } catch (RuntimeException e) {
+                throw new IOException("Réponse du pair corrompue: " + e, e);
+            }
+            PersistedRateStore.StoredTable table = tables == null ? null : tables.get(baseCurrency);
+            if (table == null) {
+                throw new IOException("Réponse du pair invalide: table " + baseCurrency + " absente");
+            }
+            return table;
+        }
+    }
+
+    private Set<String> resolvePeerAddresses() {
+        Set<String> addresses = new HashSet<>();
+        for (String peer : peers) {
+            try {
+                String host = URI.create(peer).getHost();
+                if (host == null) {
+                    logger.warn("Adresse du pair {} invalide: appels de ce pair refusés", peer);
+                    continue;
+                }
+                for (InetAddress address : InetAddress.getAllByName(host)) {
+                    addresses.add(address.getHostAddress());
+                }
+            } catch (UnknownHostException | IllegalArgumentException e) {
+                logger.warn("Adresse du pair {} non résolue: {}", peer, e.getMessage());
+            }
+        }
+        return Set.copyOf(addresses);
+    }
+
+    private int[] rankPeersAbove(String baseCurrency) {
+        long selfScore = score(self, baseCurrency);
+        List<Integer> above = new ArrayList<>();
+        for (int i = 0; i < peers.size(); i++) {
+            if (Long.compareUnsigned(score(peers.get(i), baseCurrency), selfScore) > 0) {
+                above.add(i);
+            }
+        }
+        above.sort((a, b) -> Long.compareUnsigned(score(peers.get(b), baseCurrency), score(peers.get(a), baseCurrency)));
+        return above.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Score de rendez-vous: FNV-1a 64 bits du couple (membre, devise), puis mélange final de MurmurHash3
+    private static long score(String member, String baseCurrency) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (member + '#' + baseCurrency).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        while (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+}
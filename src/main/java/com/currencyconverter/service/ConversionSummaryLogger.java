@@ -0,0 +1,100 @@
+package com.currencyconverter.service;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.util.ConfigUtils;
+
+/**
+ * Résumé périodique des conversions par paire de devises.
+ *
+ * Remplace la journalisation ligne par ligne: le chemin critique n'incrémente qu'un compteur
+ * indexé par ordinal, et une ligne INFO agrégée est écrite toutes les {@code intervalSeconds}.
+ */
+public class ConversionSummaryLogger implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ConversionSummaryLogger.class);
+    private static final long DEFAULT_INTERVAL_SECONDS = 60;
+    private static final int MAX_PAIRS_LOGGED = 10;
+    private static final Currency[] CURRENCIES = Currency.values();
+    
+    private final LongAdder[] pairCounts;
+    private final long intervalSeconds;
+    private final ScheduledExecutorService scheduler;
+    
+    public ConversionSummaryLogger(long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+        this.pairCounts = new LongAdder[CURRENCIES.length * CURRENCIES.length];
+        for (int i = 0; i < pairCounts.length; i++) {
+            pairCounts[i] = new LongAdder();
+        }
+        this.scheduler = intervalSeconds > 0
+                ? Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("conversion-summary").factory())
+                : null;
+    }
+    
+    public static ConversionSummaryLogger fromSystemProperties() {
+        return new ConversionSummaryLogger(
+                ConfigUtils.getLong("currency.log.summaryIntervalSeconds", DEFAULT_INTERVAL_SECONDS)).start();
+    }
+    
+    // Planification séparée du constructeur: la tâche ne voit qu'une instance entièrement construite
+    public ConversionSummaryLogger start() {
+        if (scheduler != null) {
+            scheduler.scheduleAtFixedRate(this::logSummary, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+        return this;
+    }
+    
+    public void record(Currency from, Currency to) {
+        if (scheduler != null) {
+            pairCounts[from.ordinal() * CURRENCIES.length + to.ordinal()].increment();
+        }
+    }
+    
+    void logSummary() {
+        List<long[]> pairs = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < pairCounts.length; i++) {
+            long count = pairCounts[i].sumThenReset();
+            if (count > 0) {
+                pairs.add(new long[] {i, count});
+                total += count;
+            }
+        }
+        if (total == 0 || !logger.isInfoEnabled()) {
+            return;
+        }
+        
+        pairs.sort((a, b) -> Long.compare(b[1], a[1]));
+        StringBuilder detail = new StringBuilder();
+        for (int i = 0; i < Math.min(MAX_PAIRS_LOGGED, pairs.size()); i++) {
+            int pair = (int) pairs.get(i)[0];
+            if (i > 0) {
+                detail.append(", ");
+            }
+            detail.append(CURRENCIES[pair / CURRENCIES.length].getCode()).append("->")
+                  .append(CURRENCIES[pair % CURRENCIES.length].getCode()).append(": ").append(pairs.get(i)[1]);
+        }
+        if (pairs.size() > MAX_PAIRS_LOGGED) {
+            detail.append(", ... (").append(pairs.size() - MAX_PAIRS_LOGGED).append(" autres paires)");
+        }
+        logger.info("Conversions sur {} s: {} ({})", intervalSeconds, total, detail);
+    }
+    
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            logSummary();
+        }
+    }
+}
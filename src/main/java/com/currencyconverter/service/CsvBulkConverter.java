@@ -0,0 +1,272 @@
+package com.currencyconverter.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.BulkConversionSummary;
+import com.currencyconverter.model.ConversionResult;
+
+// Conversion en flux d'un fichier CSV: mémoire constante quelle que soit la taille du fichier
+public class CsvBulkConverter {
+    private static final Logger logger = LoggerFactory.getLogger(CsvBulkConverter.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_LINE_LENGTH = 1024 * 1024;
+    private static final int LINE_SKIPPED = 0;
+    private static final int LINE_CONVERTED = 1;
+    private static final int LINE_FAILED = 2;
+    private static final byte[] HEADER_SUFFIX = ",convertedAmount,exchangeRate,error".getBytes(StandardCharsets.UTF_8);
+    
+    private final CurrencyConversionService conversionService;
+    
+    public CsvBulkConverter(CurrencyConversionService conversionService) {
+        this.conversionService = conversionService;
+    }
+    
+    // Colonnes lues: from, to, amount (repérées par l'en-tête s'il existe, sinon les trois premières).
+    // Chaque ligne est recopiée telle quelle, suivie de convertedAmount, exchangeRate et error.
+    // Un champ entre guillemets peut contenir des fins de ligne: l'enregistrement continue jusqu'au
+    // premier '\n' hors guillemets (RFC 4180).
+    public BulkConversionSummary convert(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        long start = System.nanoTime();
+        RateSnapshot snapshot = conversionService.createRateSnapshot();
+        
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+        List<String> fields = new ArrayList<>();
+        int[] columns = {0, 1, 2};
+        boolean firstLine = true;
+        long rows = 0;
+        long failed = 0;
+        boolean eof = false;
+        // Octets de l'enregistrement en cours déjà parcourus, et état des guillemets à cet endroit
+        int scanned = 0;
+        boolean quoted = false;
+        
+        while (!eof || in.position() > 0) {
+            if (!eof) {
+                eof = input.read(in) < 0;
+            }
+            in.flip();
+            
+            int lineStart = in.position();
+            for (int i = lineStart + scanned; i < in.limit(); i++) {
+                byte b = in.get(i);
+                if (b == '"') {
+                    // Un guillemet doublé ("") bascule deux fois: l'état est inchangé
+                    quoted = !quoted;
+                    continue;
+                }
+                if (b != '\n' || quoted) {
+                    continue;
+                }
+                int status = processLine(in, lineStart, i, true, fields, columns, firstLine, snapshot, out, output);
+                rows += status == LINE_SKIPPED ? 0 : 1;
+                failed += status == LINE_FAILED ? 1 : 0;
+                firstLine = false;
+                lineStart = i + 1;
+            }
+            
+            if (eof && lineStart < in.limit()) {
+                // Dernière ligne sans fin de ligne
+                int status = processLine(in, lineStart, in.limit(), false, fields, columns, firstLine,
+                        snapshot, out, output);
+                rows += status == LINE_SKIPPED ? 0 : 1;
+                failed += status == LINE_FAILED ? 1 : 0;
+                lineStart = in.limit();
+                quoted = false;
+            }
+            
+            scanned = in.limit() - lineStart;
+            in.position(lineStart);
+            in.compact();
+            if (!in.hasRemaining()) {
+                in = growLineBuffer(in);
+            }
+        }
+        
+        flush(out, output);
+        
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        BulkConversionSummary summary = new BulkConversionSummary(rows, failed, elapsedMillis);
+        logger.info("Conversion CSV: {} lignes ({} en erreur) en {} ms, {} lignes/s",
+                rows, failed, elapsedMillis, summary.getRowsPerSecond());
+        return summary;
+    }
+    
+    private int processLine(ByteBuffer in, int from, int to, boolean newline, List<String> fields, int[] columns,
+                                boolean firstLine, RateSnapshot snapshot, ByteBuffer out, WritableByteChannel output)
+            throws IOException {
+        int end = to;
+        boolean carriageReturn = end > from && in.get(end - 1) == '\r';
+        if (carriageReturn) {
+            end--;
+        }
+        
+        if (end == from) {
+            if (newline) {
+                writeLineEnd(out, output, carriageReturn);
+            }
+            return LINE_SKIPPED;
+        }
+        
+        String line = decode(in, from, end);
+        boolean complete = parseFields(line, fields);
+        
+        if (complete && firstLine && isHeader(fields, columns)) {
+            write(out, output, in, from, end);
+            write(out, output, HEADER_SUFFIX);
+            writeLineEnd(out, output, carriageReturn);
+            return LINE_SKIPPED;
+        }
+        
+        String error = null;
+        String suffix = null;
+        int maxColumn = Math.max(columns[0], Math.max(columns[1], columns[2]));
+        if (!complete) {
+            // Seul le dernier enregistrement du fichier peut s'arrêter dans un champ entre guillemets
+            error = "Guillemet fermant manquant en fin de fichier";
+        } else if (fields.size() <= maxColumn) {
+            error = "Colonnes manquantes: from, to, amount requis";
+        } else {
+            String amountStr = fields.get(columns[2]).trim();
+            try {
+                BigDecimal amount = new BigDecimal(amountStr);
+                ConversionResult result = conversionService.convertCurrency(
+                        fields.get(columns[0]).trim(), fields.get(columns[1]).trim(), amount, snapshot);
+                suffix = "," + result.getConvertedAmount().toPlainString()
+                        + "," + result.getExchangeRate().toPlainString() + ",";
+            } catch (NumberFormatException e) {
+                error = "Format de montant invalide: " + amountStr;
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            } catch (IOException e) {
+                error = "Service de taux de change temporairement indisponible";
+            }
+        }
+        if (error != null) {
+            suffix = ",,," + escape(error);
+        }
+        
+        write(out, output, in, from, end);
+        write(out, output, suffix.getBytes(StandardCharsets.UTF_8));
+        if (newline) {
+            writeLineEnd(out, output, carriageReturn);
+        }
+        return error == null ? LINE_CONVERTED : LINE_FAILED;
+    }
+    
+    private static boolean isHeader(List<String> fields, int[] columns) {
+        int fromColumn = -1;
+        int toColumn = -1;
+        int amountColumn = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).trim();
+            if (name.equalsIgnoreCase("from")) {
+                fromColumn = i;
+            } else if (name.equalsIgnoreCase("to")) {
+                toColumn = i;
+            } else if (name.equalsIgnoreCase("amount")) {
+                amountColumn = i;
+            }
+        }
+        if (fromColumn < 0 || toColumn < 0 || amountColumn < 0) {
+            return false;
+        }
+        columns[0] = fromColumn;
+        columns[1] = toColumn;
+        columns[2] = amountColumn;
+        return true;
+    }
+    
+    // Renvoie false si le dernier champ entre guillemets n'est pas refermé
+    private static boolean parseFields(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return !quoted;
+    }
+    
+    private static String escape(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+    
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        return new String(buffer.array(), buffer.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+    }
+    
+    private static ByteBuffer growLineBuffer(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() >= MAX_LINE_LENGTH) {
+            throw new IOException("Ligne CSV trop longue (plus de " + MAX_LINE_LENGTH + " octets)");
+        }
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+    
+    private static void writeLineEnd(ByteBuffer out, WritableByteChannel output, boolean carriageReturn)
+            throws IOException {
+        if (out.remaining() < 2) {
+            flush(out, output);
+        }
+        if (carriageReturn) {
+            out.put((byte) '\r');
+        }
+        out.put((byte) '\n');
+    }
+    
+    private static void write(ByteBuffer out, WritableByteChannel output, byte[] bytes) throws IOException {
+        write(out, output, ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+    
+    private static void write(ByteBuffer out, WritableByteChannel output, ByteBuffer source, int from, int to)
+            throws IOException {
+        int position = from;
+        while (position < to) {
+            if (!out.hasRemaining()) {
+                flush(out, output);
+            }
+            int length = Math.min(out.remaining(), to - position);
+            out.put(source.array(), source.arrayOffset() + position, length);
+            position += length;
+        }
+    }
+    
+    private static void flush(ByteBuffer out, WritableByteChannel output) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            output.write(out);
+        }
+        out.clear();
+    }
+}
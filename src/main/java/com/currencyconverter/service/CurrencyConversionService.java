@@ -1,50 +1,193 @@
 package com.currencyconverter.service;
 
+import com.currencyconverter.metrics.ServiceMetrics;
 import com.currencyconverter.model.ConversionResult;
 import com.currencyconverter.model.Currency;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 
-public class CurrencyConversionService {
+public class CurrencyConversionService implements Closeable {
     private static final Logger logger = LoggerFactory.getLogger(CurrencyConversionService.class);
     private static final int DECIMAL_PLACES = 4;
     
     private final ExchangeRateService exchangeRateService;
+    private final ServiceMetrics metrics;
+    private final ConversionSummaryLogger summaryLogger;
+    private final boolean tracked;
     
     public CurrencyConversionService() {
-        this.exchangeRateService = new ExchangeRateService();
+        this(new ExchangeRateService());
+    }
+    
+    public CurrencyConversionService(ExchangeRateService exchangeRateService) {
+        this(exchangeRateService, exchangeRateService.getMetrics(), ConversionSummaryLogger.fromSystemProperties());
+    }
+    
+    // Métriques et résumé distincts de ceux du service de taux
+    public CurrencyConversionService(ExchangeRateService exchangeRateService, ServiceMetrics metrics,
+                                     ConversionSummaryLogger summaryLogger) {
+        this(exchangeRateService, metrics, summaryLogger, true);
+    }
+    
+    private CurrencyConversionService(ExchangeRateService exchangeRateService, ServiceMetrics metrics,
+                                      ConversionSummaryLogger summaryLogger, boolean tracked) {
+        this.exchangeRateService = exchangeRateService;
+        this.metrics = metrics;
+        this.summaryLogger = summaryLogger;
+        this.tracked = tracked;
+    }
+    
+    // Conversions du préchauffage: ni comptées, ni résumées, et leurs lectures de taux ne sont pas
+    // des accès au cache (métriques, éviction et rafraîchissement anticipé restent ceux du vrai trafic)
+    public static CurrencyConversionService forWarmup(ExchangeRateService exchangeRateService) {
+        return new CurrencyConversionService(exchangeRateService, new ServiceMetrics(),
+                new ConversionSummaryLogger(0), false);
     }
     
     public ConversionResult convertCurrency(String fromCurrency, String toCurrency, BigDecimal amount) 
             throws IOException, IllegalArgumentException {
+        return timedConversion(fromCurrency, toCurrency, amount, 0, -1);
+    }
+    
+    // Montant transmis tel quel par la servlet: analysé directement en entier mis à l'échelle
+    public ConversionResult convertCurrency(String fromCurrency, String toCurrency, String amountText) 
+            throws IOException, IllegalArgumentException {
+        int amountScale = FixedPointMath.parseScale(amountText);
+        if (amountScale < 0) {
+            return timedConversion(fromCurrency, toCurrency, new BigDecimal(amountText), 0, -1);
+        }
+        long amountUnscaled = FixedPointMath.parseUnscaled(amountText);
+        return timedConversion(fromCurrency, toCurrency, BigDecimal.valueOf(amountUnscaled, amountScale),
+                amountUnscaled, amountScale);
+    }
+    
+    // Conversion au taux en vigueur à la fin d'une journée passée (UTC), d'après l'historique des taux
+    public ConversionResult convertCurrency(String fromCurrency, String toCurrency, BigDecimal amount, LocalDate date)
+            throws IOException, IllegalArgumentException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            validateAmount(amount);
+            Currency from = Currency.fromCode(fromCurrency);
+            Currency to = Currency.fromCode(toCurrency);
+            
+            long endOfDayMillis = date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() - 1;
+            BigDecimal exchangeRate = exchangeRateService.getHistoricalExchangeRate(from, to, endOfDayMillis);
+            BigDecimal convertedAmount = amount.multiply(exchangeRate).setScale(DECIMAL_PLACES, RoundingMode.HALF_UP);
+            
+            if (logger.isDebugEnabled()) {
+                logger.debug("Conversion au {}: {} {} = {} {} (taux: {})",
+                        date, amount, fromCurrency, convertedAmount, toCurrency, exchangeRate);
+            }
+            success = true;
+            return new ConversionResult(fromCurrency, toCurrency, amount, convertedAmount, exchangeRate);
+        } finally {
+            metrics.recordConversion(System.nanoTime() - start, success);
+        }
+    }
+    
+    private ConversionResult timedConversion(String fromCurrency, String toCurrency, BigDecimal amount,
+                                             long amountUnscaled, int amountScale) throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            ConversionResult result = doConvertCurrency(fromCurrency, toCurrency, amount, amountUnscaled, amountScale);
+            success = true;
+            return result;
+        } finally {
+            metrics.recordConversion(System.nanoTime() - start, success);
+        }
+    }
+    
+    // amountScale < 0: montant connu uniquement sous forme de BigDecimal
+    private ConversionResult doConvertCurrency(String fromCurrency, String toCurrency, BigDecimal amount,
+                                               long amountUnscaled, int amountScale) 
+            throws IOException, IllegalArgumentException {
         
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Le montant doit être positif");
+        validateAmount(amount);
+        
+        Currency from = Currency.fromCode(fromCurrency);
+        Currency to = Currency.fromCode(toCurrency);
+        
+        BigDecimal exchangeRate;
+        BigDecimal convertedAmount = null;
+        if (from == to) {
+            exchangeRate = BigDecimal.ONE;
+            convertedAmount = multiplyFixedPoint(amountUnscaled, amountScale, 1, 0);
+        } else if (exchangeRateService.isCrossRateMode()) {
+            RateMatrix matrix = exchangeRateService.getRateMatrix(tracked);
+            exchangeRate = matrix.requireRate(from, to);
+            convertedAmount = multiplyFixedPoint(amountUnscaled, amountScale,
+                    matrix.getUnscaledRate(from, to), matrix.getRateScale(from, to));
+        } else {
+            exchangeRate = exchangeRateService.getExchangeRate(from, to, tracked);
+        }
+        if (convertedAmount == null) {
+            convertedAmount = amount.multiply(exchangeRate).setScale(DECIMAL_PLACES, RoundingMode.HALF_UP);
         }
         
-        Currency.fromCode(fromCurrency);
-        Currency.fromCode(toCurrency);
+        // Détail par requête en DEBUG uniquement; en INFO, résumé périodique par paire
+        if (logger.isDebugEnabled()) {
+            logger.debug("Conversion: {} {} = {} {} (taux: {})",
+                    amount, fromCurrency, convertedAmount, toCurrency, exchangeRate);
+        }
+        summaryLogger.record(from, to);
         
-        logger.info("Conversion: {} {} vers {}", amount, fromCurrency, toCurrency);
+        return new ConversionResult(fromCurrency, toCurrency, amount, convertedAmount, exchangeRate);
+    }
+    
+    // Conversion en masse: les taux proviennent de l'instantané, sans journalisation par ligne
+    public ConversionResult convertCurrency(String fromCurrency, String toCurrency, BigDecimal amount,
+                                            RateSnapshot snapshot) throws IOException, IllegalArgumentException {
+        validateAmount(amount);
         
-        BigDecimal exchangeRate = exchangeRateService.getExchangeRate(fromCurrency, toCurrency);
+        BigDecimal exchangeRate = snapshot.getRate(Currency.fromCode(fromCurrency), Currency.fromCode(toCurrency));
         BigDecimal convertedAmount = amount.multiply(exchangeRate).setScale(DECIMAL_PLACES, RoundingMode.HALF_UP);
         
-        logger.info("Taux de change: 1 {} = {} {}", fromCurrency, exchangeRate, toCurrency);
-        logger.info("Résultat: {} {} = {} {}", amount, fromCurrency, convertedAmount, toCurrency);
-        
         return new ConversionResult(fromCurrency, toCurrency, amount, convertedAmount, exchangeRate);
     }
     
+    // Chemin rapide sur longs; null si l'une des valeurs ou le produit sort de la plage d'un long
+    private static BigDecimal multiplyFixedPoint(long amountUnscaled, int amountScale, long rateUnscaled, int rateScale) {
+        if (amountScale < 0 || rateScale < 0) {
+            return null;
+        }
+        long converted = FixedPointMath.multiplyRounded(amountUnscaled, amountScale, rateUnscaled, rateScale,
+                DECIMAL_PLACES);
+        return converted == FixedPointMath.UNSUPPORTED ? null : BigDecimal.valueOf(converted, DECIMAL_PLACES);
+    }
+    
+    public RateSnapshot createRateSnapshot() throws IOException {
+        return new RateSnapshot(exchangeRateService);
+    }
+    
+    private void validateAmount(BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Le montant doit être positif");
+        }
+    }
+    
     public BigDecimal getExchangeRate(String fromCurrency, String toCurrency) throws IOException {
         return exchangeRateService.getExchangeRate(fromCurrency, toCurrency);
     }
     
+    public ExchangeRateService getExchangeRateService() {
+        return exchangeRateService;
+    }
+    
     public void clearCache() {
         exchangeRateService.clearCache();
     }
+    
+    @Override
+    public void close() {
+        summaryLogger.close();
+    }
 }
\ No newline at end of file
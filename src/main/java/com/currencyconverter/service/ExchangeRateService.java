@@ -1,36 +1,189 @@
 package com.currencyconverter.service;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.currencyconverter.model.ExchangeRateResponse;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.currencyconverter.metrics.LatencyHistogram;
+import com.currencyconverter.metrics.ServiceMetrics;
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.model.RateTable;
+import com.currencyconverter.util.ConfigUtils;
 
-public class ExchangeRateService {
+public class ExchangeRateService implements Closeable {
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
     private static final String PRIMARY_API_URL = "https://api.fxratesapi.com/latest?base=";
     private static final String FALLBACK_API_URL = "https://api.exchangerate-api.com/v4/latest/";
     private static final int CACHE_DURATION_MINUTES = 30;
+    private static final int CACHE_HARD_DURATION_MINUTES = 120;
+    private static final long DEFAULT_FETCH_WAIT_TIMEOUT_MS = 15000;
+    private static final int DEFAULT_REFRESH_AHEAD_MIN_HITS = 20;
+    private static final String DEFAULT_PIVOT_CURRENCY = "USD";
+    private static final long PERSIST_DELAY_MS = 1000;
+    private static final MathContext CROSS_RATE_CONTEXT = new MathContext(12, RoundingMode.HALF_EVEN);
+    private static final long DEFAULT_HEDGE_MIN_DELAY_MS = 20;
+    private static final long DEFAULT_HEDGE_MAX_DELAY_MS = 2000;
+    private static final long HEDGE_MIN_SAMPLES = 20;
+    // Une table par devise de base supportée: avec 16 devises, le cache plafonne à 16 entrées (~5,5 Kio)
+    // et ces bornes ne sont jamais atteintes. Elles protègent le tas quand la liste des devises s'allonge;
+    // un déploiement qui veut limiter le cache dès aujourd'hui les abaisse (currency.cache.max*).
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 64;
+    private static final long DEFAULT_CACHE_MAX_WEIGHT_BYTES = 1024 * 1024;
     
-    private final Gson gson;
-    private final Map<String, CacheEntry> rateCache;
+    private final BoundedCache<String, CacheEntry> rateCache;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final List<RateProvider> providers;
+    private final List<CircuitBreaker> circuitBreakers;
+    private final ClusterPeers clusterPeers;
+    private final boolean hedgingEnabled;
+    private final long hedgeMinDelayNanos;
+    private final long hedgeMaxDelayNanos;
+    private final long fetchWaitTimeoutMs;
+    private final long softTtlMillis;
+    private final long hardTtlMillis;
+    private final long refreshAheadMinHits;
+    private final String pivotCurrency;
+    private final boolean crossRateMode;
+    private final ExecutorService refreshExecutor;
+    private final ServiceMetrics metrics = new ServiceMetrics();
+    private final PersistedRateStore persistedRateStore;
+    private final RateHistoryStore rateHistoryStore;
+    private final AtomicBoolean persistPending = new AtomicBoolean();
+    private final List<RateUpdateListener> rateListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    private final Object versionedRatesLock = new Object();
+    private volatile VersionedRates versionedRates;
+    private volatile RateMatrix rateMatrix;
+    private final ScheduledExecutorService refreshScheduler;
     
     public ExchangeRateService() {
-        this.gson = new GsonBuilder().create();
-        this.rateCache = new ConcurrentHashMap<>();
+        this(HttpClientSettings.fromSystemProperties());
+    }
+    
+    public ExchangeRateService(HttpClientSettings httpSettings) {
+        // URL surchargeables pour pointer vers un fournisseur local (tests de charge hors ligne)
+        this(httpSettings,
+                ConfigUtils.getString("currency.provider.primaryUrl", PRIMARY_API_URL),
+                ConfigUtils.getString("currency.provider.fallbackUrl", FALLBACK_API_URL));
+    }
+    
+    public ExchangeRateService(HttpClientSettings httpSettings, String primaryApiUrl, String fallbackApiUrl) {
+        this.rateCache = new BoundedCache<>(
+                ConfigUtils.getInt("currency.cache.maxEntries", DEFAULT_CACHE_MAX_ENTRIES),
+                ConfigUtils.getLong("currency.cache.maxWeightBytes", DEFAULT_CACHE_MAX_WEIGHT_BYTES),
+                this::onCacheRemoval);
+        this.connectionManager = createConnectionManager(httpSettings);
+        this.httpClient = createHttpClient(httpSettings, connectionManager);
+        
+        // Ordre de préférence des fournisseurs, chacun derrière son propre disjoncteur
+        this.providers = List.of(
+                new HttpRateProvider(RateSource.PRIMARY, primaryApiUrl, httpClient),
+                new HttpRateProvider(RateSource.FALLBACK, fallbackApiUrl, httpClient));
+        this.circuitBreakers = new ArrayList<>();
+        for (int i = 0; i < providers.size(); i++) {
+            circuitBreakers.add(CircuitBreaker.fromSystemProperties());
+        }
+        this.clusterPeers = ClusterPeers.fromSystemProperties(httpClient);
+        this.hedgingEnabled = ConfigUtils.getBoolean("currency.hedge.enabled", true);
+        this.hedgeMinDelayNanos = TimeUnit.MILLISECONDS.toNanos(
+                ConfigUtils.getLong("currency.hedge.minDelayMs", DEFAULT_HEDGE_MIN_DELAY_MS));
+        this.hedgeMaxDelayNanos = Math.max(hedgeMinDelayNanos, TimeUnit.MILLISECONDS.toNanos(
+                ConfigUtils.getLong("currency.hedge.maxDelayMs", DEFAULT_HEDGE_MAX_DELAY_MS)));
+        this.fetchWaitTimeoutMs = ConfigUtils.getLong("currency.cache.fetchWaitMs", DEFAULT_FETCH_WAIT_TIMEOUT_MS);
+        // Les variantes en millisecondes priment: durées courtes pour les tests et les essais locaux
+        this.softTtlMillis = ConfigUtils.getLong("currency.cache.softTtlMillis", TimeUnit.MINUTES.toMillis(
+                ConfigUtils.getLong("currency.cache.softTtlMinutes", CACHE_DURATION_MINUTES)));
+        this.hardTtlMillis = Math.max(softTtlMillis, ConfigUtils.getLong("currency.cache.hardTtlMillis",
+                TimeUnit.MINUTES.toMillis(ConfigUtils.getLong("currency.cache.hardTtlMinutes", CACHE_HARD_DURATION_MINUTES))));
+        this.refreshAheadMinHits = ConfigUtils.getLong("currency.cache.refreshAheadMinHits", DEFAULT_REFRESH_AHEAD_MIN_HITS);
+        
+        // "direct" récupère une table par devise source (plus précis, mais N fois plus d'appels)
+        this.pivotCurrency = Currency.fromCode(
+                ConfigUtils.getString("currency.rates.pivot", DEFAULT_PIVOT_CURRENCY)).getCode();
+        this.crossRateMode = !"direct".equalsIgnoreCase(ConfigUtils.getString("currency.rates.mode", "cross"));
+        if (crossRateMode) {
+            // Les lectures passent par la matrice sans toucher l'entrée: son ancienneté d'accès n'est pas significative
+            rateCache.pin(pivotCurrency);
+        }
+        this.persistedRateStore = PersistedRateStore.fromSystemProperties();
+        this.rateHistoryStore = RateHistoryStore.fromSystemProperties(Currency.fromCode(pivotCurrency));
+        
+        ThreadFactory refreshThreads = Thread.ofVirtual().name("rate-refresh-", 0).factory();
+        this.refreshExecutor = Executors.newThreadPerTaskExecutor(refreshThreads);
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(refreshThreads);
+        long sweepPeriodMillis = Math.max(1000, softTtlMillis / 30);
+        refreshScheduler.scheduleWithFixedDelay(this::refreshHotEntries,
+                sweepPeriodMillis, sweepPeriodMillis, TimeUnit.MILLISECONDS);
+        refreshScheduler.scheduleWithFixedDelay(this::expireIdleEntries,
+                sweepPeriodMillis, sweepPeriodMillis, TimeUnit.MILLISECONDS);
+        this.versionedRates = new VersionedRates(System.currentTimeMillis(), Map.of(), softTtlMillis, -1);
+    }
+    
+    private static PoolingHttpClientConnectionManager createConnectionManager(HttpClientSettings settings) {
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(
+                settings.getKeepAliveMs(), TimeUnit.MILLISECONDS);
+        manager.setMaxTotal(settings.getMaxTotalConnections());
+        manager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+        manager.setValidateAfterInactivity(settings.getValidateAfterInactivityMs());
+        return manager;
+    }
+    
+    private static CloseableHttpClient createHttpClient(HttpClientSettings settings,
+                                                       PoolingHttpClientConnectionManager manager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(settings.getConnectTimeoutMs())
+                .setSocketTimeout(settings.getSocketTimeoutMs())
+                .setConnectionRequestTimeout(settings.getConnectionRequestTimeoutMs())
+                .build();
+        
+        // Réutiliser les connexions keep-alive, en bornant la durée annoncée par le serveur
+        long keepAliveMs = settings.getKeepAliveMs();
+        DefaultConnectionKeepAliveStrategy defaultStrategy = DefaultConnectionKeepAliveStrategy.INSTANCE;
+        
+        return HttpClients.custom()
+                .setConnectionManager(manager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long announced = defaultStrategy.getKeepAliveDuration(response, context);
+                    return announced > 0 ? Math.min(announced, keepAliveMs) : keepAliveMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .setUserAgent("CurrencyConverter/1.0")
+                .build();
     }
     
     public BigDecimal getExchangeRate(String fromCurrency, String toCurrency) throws IOException {
@@ -38,8 +191,73 @@ public class ExchangeRateService {
             return BigDecimal.ONE;
         }
         
-        ExchangeRateResponse rates = getExchangeRates(fromCurrency);
-        BigDecimal rate = rates.getRates().get(toCurrency);
+        if (!crossRateMode) {
+            return getDirectExchangeRate(fromCurrency, toCurrency);
+        }
+        return getExchangeRate(Currency.fromCode(fromCurrency), Currency.fromCode(toCurrency));
+    }
+    
+    public BigDecimal getExchangeRate(Currency fromCurrency, Currency toCurrency) throws IOException {
+        return getExchangeRate(fromCurrency, toCurrency, true);
+    }
+    
+    BigDecimal getExchangeRate(Currency fromCurrency, Currency toCurrency, boolean tracked) throws IOException {
+        if (fromCurrency == toCurrency) {
+            return BigDecimal.ONE;
+        }
+        
+        if (!crossRateMode) {
+            return getDirectExchangeRate(fromCurrency.getCode(), toCurrency.getCode(), tracked);
+        }
+        
+        // Taux croisé: from -> pivot -> to, précalculé dans la matrice de la table pivot
+        return getRateMatrix(tracked).requireRate(fromCurrency, toCurrency);
+    }
+    
+    public RateMatrix getRateMatrix() throws IOException {
+        return getRateMatrix(true);
+    }
+    
+    // tracked = false: lecture du préchauffage, ni comptée dans les métriques du cache ni prise en
+    // compte pour l'éviction et le rafraîchissement anticipé
+    RateMatrix getRateMatrix(boolean tracked) throws IOException {
+        RateMatrix matrix = rateMatrix;
+        if (matrix != null && matrix.getAgeMillis() < softTtlMillis) {
+            if (tracked) {
+                matrix.recordAccess();
+                metrics.recordCacheHit();
+            }
+            return matrix;
+        }
+        
+        // Table absente ou périmée: passer par le cache (rafraîchissement, récupération coalescée)
+        RateTable pivotRates = getExchangeRates(pivotCurrency, tracked);
+        matrix = rateMatrix;
+        if (matrix != null && matrix.isBuiltFrom(pivotRates)) {
+            return matrix;
+        }
+        // Taux fixes du mode dégradé: matrice temporaire, jamais publiée
+        return RateMatrix.fromPivotTable(Currency.fromCode(pivotCurrency), pivotRates, CROSS_RATE_CONTEXT,
+                System.currentTimeMillis(), null);
+    }
+    
+    // Vrai si la paire peut être servie depuis le cache (éventuellement périmé) sans appel réseau bloquant
+    public boolean isCached(Currency fromCurrency, Currency toCurrency) {
+        if (fromCurrency == toCurrency) {
+            return true;
+        }
+        CacheEntry entry = rateCache.get(crossRateMode ? pivotCurrency : fromCurrency.getCode());
+        return entry != null && entry.isLoaded() && entry.getAgeMillis() < hardTtlMillis;
+    }
+    
+    private BigDecimal getDirectExchangeRate(String fromCurrency, String toCurrency) throws IOException {
+        return getDirectExchangeRate(fromCurrency, toCurrency, true);
+    }
+    
+    private BigDecimal getDirectExchangeRate(String fromCurrency, String toCurrency, boolean tracked)
+            throws IOException {
+        RateTable rates = getExchangeRates(fromCurrency, tracked);
+        BigDecimal rate = rates.getRate(Currency.fromCode(toCurrency));
         
         if (rate == null) {
             throw new IllegalArgumentException("Taux de change non disponible pour: " + toCurrency);
@@ -48,83 +266,622 @@ public class ExchangeRateService {
         return rate;
     }
     
-    public ExchangeRateResponse getExchangeRates(String baseCurrency) throws IOException {
+    public ServiceMetrics getMetrics() {
+        return metrics;
+    }
+    
+    // État de chaque table en cache (âge, origine), pour l'exposition des métriques
+    public List<CacheStatus> getCacheStatus() {
+        List<CacheStatus> statuses = new ArrayList<>();
+        rateCache.forEach((baseCurrency, entry) -> {
+            if (entry.isLoaded()) {
+                statuses.add(new CacheStatus(baseCurrency, entry.getSource(), entry.getAgeMillis(),
+                        entry.getAgeMillis() >= softTtlMillis, entry.getWeight()));
+            }
+        });
+        statuses.sort(Comparator.comparing(CacheStatus::getBaseCurrency));
+        return statuses;
+    }
+    
+    public int getCacheEntryCount() {
+        return rateCache.size();
+    }
+    
+    public int getCacheMaxEntries() {
+        return rateCache.getMaxEntries();
+    }
+    
+    // Poids estimé (octets) des tables en cache, et borne au-delà de laquelle les moins récentes sont évincées
+    public long getCacheWeightBytes() {
+        return rateCache.getWeight();
+    }
+    
+    public long getCacheMaxWeightBytes() {
+        return rateCache.getMaxWeight();
+    }
+    
+    public String getPivotCurrency() {
+        return pivotCurrency;
+    }
+    
+    public boolean isCrossRateMode() {
+        return crossRateMode;
+    }
+    
+    public RateTable getExchangeRates(String baseCurrency) throws IOException {
+        return getExchangeRates(baseCurrency, true);
+    }
+    
+    // Chargement d'une table par le préchauffage: mêmes récupérations que pour une requête, mais sans
+    // succès ni échec de cache comptés, et sans accès qui fausserait l'éviction ou le rafraîchissement anticipé
+    public RateTable warm(String baseCurrency) throws IOException {
+        return getExchangeRates(baseCurrency, false);
+    }
+    
+    RateTable getExchangeRates(String baseCurrency, boolean tracked) throws IOException {
         CacheEntry cacheEntry = rateCache.get(baseCurrency);
         
-        if (cacheEntry != null && !isCacheExpired(cacheEntry.getTimestamp())) {
-            logger.info("Utilisation du cache pour la devise: {}", baseCurrency);
-            return cacheEntry.getRates();
+        if (cacheEntry != null && cacheEntry.isLoaded()) {
+            long age = cacheEntry.getAgeMillis();
+            if (age < softTtlMillis) {
+                logger.debug("Utilisation du cache pour la devise: {}", baseCurrency);
+                if (tracked) {
+                    cacheEntry.recordAccess();
+                    metrics.recordCacheHit();
+                }
+                return cacheEntry.getRates();
+            }
+            if (age < hardTtlMillis) {
+                // Stale-while-revalidate: servir la table actuelle et la rafraîchir en arrière-plan
+                logger.debug("Utilisation du cache périmé pour la devise: {} (rafraîchissement en arrière-plan)", baseCurrency);
+                if (tracked) {
+                    cacheEntry.recordAccess();
+                    metrics.recordStaleHit();
+                }
+                scheduleRefresh(baseCurrency, cacheEntry);
+                return cacheEntry.getRates();
+            }
         }
         
-        logger.info("Récupération des taux de change depuis l'API pour: {}", baseCurrency);
+        // Une seule récupération en cours par devise: les autres threads attendent son résultat
+        CacheEntry pendingEntry = CacheEntry.pending();
+        CacheEntry current = rateCache.compute(baseCurrency, (key, existing) -> {
+            if (existing != null && (!existing.isLoaded() || existing.getAgeMillis() < hardTtlMillis)) {
+                return existing;
+            }
+            return pendingEntry;
+        });
         
-        // Essayer d'abord l'API principale
+        if (current == pendingEntry) {
+            if (tracked) {
+                metrics.recordCacheMiss();
+            }
+            return loadExchangeRates(baseCurrency, pendingEntry, cacheEntry, peerTimeoutMillis());
+        }
+        if (current.isLoaded()) {
+            if (tracked) {
+                current.recordAccess();
+                metrics.recordCacheHit();
+            }
+            return current.getRates();
+        }
+        if (tracked) {
+            metrics.recordCoalescedWait();
+        }
+        return awaitPendingFetch(baseCurrency, current.getFuture());
+    }
+    
+    private RateTable loadExchangeRates(String baseCurrency, CacheEntry pendingEntry, CacheEntry previous,
+                                        long peerTimeoutMs) {
+        CompletableFuture<RateTable> future = pendingEntry.getFuture();
         try {
-            ExchangeRateResponse rates = fetchFromApi(PRIMARY_API_URL + baseCurrency);
-            if (rates != null) {
-                rateCache.put(baseCurrency, new CacheEntry(rates, LocalDateTime.now()));
-                return rates;
+            CacheEntry fetched = fetchExchangeRates(baseCurrency, peerTimeoutMs);
+            RateTable rates;
+            if (fetched != null && isSameTable(previous, fetched)) {
+                // Table d'un pair identique à celle en cache: remise en place, rien à notifier ni persister
+                rateCache.replace(baseCurrency, pendingEntry, previous);
+                metrics.recordTableServed(fetched.getSource());
+                rates = previous.getRates();
+            } else if (fetched != null) {
+                storeEntry(baseCurrency, pendingEntry, fetched);
+                metrics.recordTableServed(fetched.getSource());
+                rates = fetched.getRates();
+            } else if (previous != null && previous.isLoaded()) {
+                // Mode dégradé: une table réelle expirée vaut mieux que les taux fixes
+                logger.warn("Utilisation de la dernière table connue pour: {} (âge: {} min)",
+                        baseCurrency, TimeUnit.MILLISECONDS.toMinutes(previous.getAgeMillis()));
+                // Remise en place directe: le contenu n'a pas changé, rien à notifier, versionner ni persister
+                rateCache.replace(baseCurrency, pendingEntry, previous);
+                metrics.recordDegradedServe();
+                rates = previous.getRates();
+            } else {
+                // Les taux fixes ne sont jamais mis en cache: la prochaine requête retentera les APIs
+                rateCache.remove(baseCurrency, pendingEntry);
+                metrics.recordTableServed(RateSource.HARDCODED);
+                rates = getFallbackExchangeRates(baseCurrency);
             }
-        } catch (Exception e) {
-            logger.warn("Échec de l'API principale: {}", e.getMessage());
+            future.complete(rates);
+            return rates;
+        } catch (RuntimeException | Error e) {
+            rateCache.remove(baseCurrency, pendingEntry);
+            future.completeExceptionally(e);
+            throw e;
         }
-        
-        // Essayer l'API de fallback
+    }
+    
+    private RateTable awaitPendingFetch(String baseCurrency, CompletableFuture<RateTable> future)
+            throws IOException {
         try {
-            ExchangeRateResponse rates = fetchFromApi(FALLBACK_API_URL + baseCurrency);
-            if (rates != null) {
-                rateCache.put(baseCurrency, new CacheEntry(rates, LocalDateTime.now()));
-                return rates;
+            return future.get(fetchWaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Délai d'attente dépassé pour les taux de change de: " + baseCurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Attente des taux de change interrompue pour: " + baseCurrency);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Échec de la récupération des taux de change pour: " + baseCurrency, cause);
+        }
+    }
+    
+    private void scheduleRefresh(String baseCurrency, CacheEntry staleEntry) {
+        if (!staleEntry.tryStartRefresh()) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refreshInBackground(baseCurrency, staleEntry));
+        } catch (RejectedExecutionException e) {
+            // Service en cours d'arrêt
+            staleEntry.endRefresh(false);
+        }
+    }
+    
+    private void refreshInBackground(String baseCurrency, CacheEntry staleEntry) {
+        if (refreshEntry(baseCurrency, staleEntry, peerTimeoutMillis())) {
+            metrics.recordBackgroundRefresh();
+            logger.info("Taux de change rafraîchis en arrière-plan pour: {}", baseCurrency);
+        }
+    }
+    
+    // Remplace une entrée périmée dont l'appelant détient le rafraîchissement; les lecteurs continuent
+    // d'obtenir l'ancienne table pendant la récupération
+    private boolean refreshEntry(String baseCurrency, CacheEntry staleEntry, long peerTimeoutMs) {
+        boolean refreshed = false;
+        try {
+            // Entrée déjà remplacée (par un rafraîchissement qui vient de se terminer): rien à récupérer
+            if (rateCache.get(baseCurrency) != staleEntry) {
+                return false;
+            }
+            CacheEntry fetched = fetchExchangeRates(baseCurrency, peerTimeoutMs);
+            if (fetched != null && isSameTable(staleEntry, fetched)) {
+                // Le pair n'a pas encore rafraîchi sa table: l'entrée actuelle reste en place
+                logger.debug("Table {} inchangée chez le pair, rafraîchissement reporté", baseCurrency);
+            } else if (fetched != null) {
+                // Si une récupération bloquante a déjà remplacé l'entrée, son résultat est conservé
+                refreshed = storeEntry(baseCurrency, staleEntry, fetched);
+                if (refreshed) {
+                    metrics.recordTableServed(fetched.getSource());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Échec du rafraîchissement pour {}: {}", baseCurrency, e.getMessage());
+        } finally {
+            staleEntry.endRefresh(refreshed);
+        }
+        return refreshed;
+    }
+    
+    // Même date de récupération: la table d'un pair est celle déjà en cache
+    private static boolean isSameTable(CacheEntry previous, CacheEntry fetched) {
+        return previous != null && previous.isLoaded() && fetched.getFetchedAtMillis() == previous.getFetchedAtMillis();
+    }
+    
+    private boolean storeEntry(String baseCurrency, CacheEntry expected, CacheEntry entry) {
+        if (!rateCache.replace(baseCurrency, expected, entry)) {
+            return false;
+        }
+        publishRateMatrix(baseCurrency, entry);
+        cacheGeneration.incrementAndGet();
+        schedulePersist();
+        notifyRateListeners(entry.getRates());
+        return true;
+    }
+    
+    // Instantané des tables chargées; reconstruit au plus une fois par modification du cache
+    public VersionedRates getVersionedRates() {
+        VersionedRates current = versionedRates;
+        if (current.cacheGeneration == cacheGeneration.get()) {
+            return current;
+        }
+        synchronized (versionedRatesLock) {
+            long generation = cacheGeneration.get();
+            current = versionedRates;
+            if (current.cacheGeneration == generation) {
+                return current;
+            }
+            Map<String, PersistedRateStore.StoredTable> tables = new TreeMap<>();
+            rateCache.forEach((baseCurrency, entry) -> {
+                if (entry.isLoaded()) {
+                    tables.put(baseCurrency, new PersistedRateStore.StoredTable(entry.getRates(), entry.getFetchedAtMillis()));
+                }
+            });
+            // Une modification concurrente peut déjà figurer dans les tables lues: la version suit
+            // le contenu effectivement lu, la génération suivante ne fera que la confirmer
+            if (current.hasSameTables(tables)) {
+                current = current.withGeneration(generation, softTtlMillis);
+            } else {
+                long version = Math.max(current.getVersion() + 1, System.currentTimeMillis());
+                current = new VersionedRates(version, tables, softTtlMillis, generation);
+            }
+            versionedRates = current;
+            return current;
+        }
+    }
+    
+    public void addRateListener(RateUpdateListener listener) {
+        rateListeners.add(listener);
+    }
+    
+    public void removeRateListener(RateUpdateListener listener) {
+        rateListeners.remove(listener);
+    }
+    
+    private void notifyRateListeners(RateTable rates) {
+        for (RateUpdateListener listener : rateListeners) {
+            try {
+                listener.onRatesUpdated(rates);
+            } catch (RuntimeException e) {
+                logger.warn("Erreur d'un abonné aux mises à jour de taux: {}", e.getMessage());
             }
-        } catch (Exception e) {
-            logger.warn("Échec de l'API de fallback: {}", e.getMessage());
+        }
+    }
+    
+    private void publishRateMatrix(String baseCurrency, CacheEntry entry) {
+        // Matrice construite une seule fois par rafraîchissement de la table pivot
+        if (crossRateMode && baseCurrency.equals(pivotCurrency)) {
+            rateMatrix = RateMatrix.fromPivotTable(Currency.fromCode(pivotCurrency), entry.getRates(),
+                    CROSS_RATE_CONTEXT, entry.getFetchedAtMillis(), entry.getAccessCounter());
+        }
+    }
+    
+    // Recharge les dernières tables persistées; appelé au démarrage, avant tout appel réseau
+    public int loadPersistedRates() {
+        if (persistedRateStore == null) {
+            return 0;
         }
         
-        // Si aucune API ne fonctionne, utiliser des taux de change fixes pour le développement
-        logger.warn("Utilisation des taux de change fixes (mode dégradé)");
-        return getFallbackExchangeRates(baseCurrency);
+        int loaded = 0;
+        try {
+            for (Map.Entry<String, PersistedRateStore.StoredTable> stored : persistedRateStore.read().entrySet()) {
+                String baseCurrency = stored.getKey();
+                if (Currency.lookup(baseCurrency) == null) {
+                    continue;
+                }
+                CacheEntry entry = CacheEntry.loaded(stored.getValue().getRates(), RateSource.SNAPSHOT,
+                        stored.getValue().getFetchedAtMillis());
+                if (rateCache.putIfAbsent(baseCurrency, entry) == null) {
+                    publishRateMatrix(baseCurrency, entry);
+                    cacheGeneration.incrementAndGet();
+                    loaded++;
+                    logger.info("Taux persistés rechargés pour: {} (âge: {} min)",
+                            baseCurrency, TimeUnit.MILLISECONDS.toMinutes(entry.getAgeMillis()));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Impossible de relire les taux persistés: {}", e.getMessage());
+        }
+        return loaded;
     }
     
-    private ExchangeRateResponse fetchFromApi(String apiUrl) throws IOException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(apiUrl);
-            request.setHeader("Accept", "application/json");
-            request.setHeader("User-Agent", "CurrencyConverter/1.0");
-            
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                String responseBody = EntityUtils.toString(response.getEntity());
-                
-                if (response.getStatusLine().getStatusCode() != 200) {
-                    throw new IOException("Erreur API: " + response.getStatusLine().getStatusCode() + " - " + responseBody);
+    private void schedulePersist() {
+        if (persistedRateStore == null || !persistPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Regroupe les rafraîchissements rapprochés en une seule écriture
+            refreshScheduler.schedule(this::persistRates, PERSIST_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Service en cours d'arrêt: l'écriture est faite par close()
+        }
+    }
+    
+    private void persistRates() {
+        persistPending.set(false);
+        Map<String, PersistedRateStore.StoredTable> tables = new TreeMap<>();
+        rateCache.forEach((baseCurrency, entry) -> {
+            if (entry.isLoaded()) {
+                tables.put(baseCurrency, new PersistedRateStore.StoredTable(entry.getRates(), entry.getFetchedAtMillis()));
+            }
+        });
+        if (tables.isEmpty()) {
+            return;
+        }
+        try {
+            persistedRateStore.write(tables);
+            logger.debug("{} tables de taux persistées dans {}", tables.size(), persistedRateStore.getFile());
+        } catch (IOException e) {
+            logger.warn("Échec de la persistance des taux: {}", e.getMessage());
+        }
+    }
+    
+    private void scheduleHistoryRecord(CacheEntry entry) {
+        if (rateHistoryStore == null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> recordHistory(entry));
+        } catch (RejectedExecutionException e) {
+            // Service en cours d'arrêt: la table n'est pas historisée
+        }
+    }
+    
+    private void recordHistory(CacheEntry entry) {
+        // Horodatage du fournisseur s'il est connu: une même table récupérée deux fois n'est enregistrée qu'une fois
+        long timestamp = entry.getRates().getTimestamp();
+        long timestampMillis = timestamp > 0 ? TimeUnit.SECONDS.toMillis(timestamp) : entry.getFetchedAtMillis();
+        try {
+            if (rateHistoryStore.append(entry.getRates(), timestampMillis)) {
+                logger.debug("Table {} historisée dans {}", entry.getRates().getBase(), rateHistoryStore.getDirectory());
+            }
+        } catch (IOException e) {
+            logger.warn("Échec de l'historisation des taux: {}", e.getMessage());
+        }
+    }
+    
+    // Taux en vigueur à un instant passé, d'après l'historique (et non le cache)
+    public BigDecimal getHistoricalExchangeRate(Currency fromCurrency, Currency toCurrency, long atMillis)
+            throws IOException {
+        if (rateHistoryStore == null) {
+            throw new IllegalArgumentException("Historique des taux désactivé");
+        }
+        return rateHistoryStore.getRate(fromCurrency, toCurrency, atMillis);
+    }
+    
+    // Tables au-delà du TTL dur que personne n'a demandées depuis: conservées jusque-là comme
+    // dernier recours du mode dégradé, elles ne servent plus qu'à occuper le tas
+    private void expireIdleEntries() {
+        long now = System.currentTimeMillis();
+        rateCache.expireIf((baseCurrency, entry) -> entry.isEvictable()
+                && now - entry.getFetchedAtMillis() >= hardTtlMillis
+                && now - entry.getLastAccessMillis() >= hardTtlMillis);
+    }
+    
+    private void onCacheRemoval(String baseCurrency, CacheEntry entry, boolean expired) {
+        cacheGeneration.incrementAndGet();
+        if (expired) {
+            metrics.recordCacheExpiration();
+            logger.info("Table expirée retirée du cache: {} (âge: {} min)",
+                    baseCurrency, TimeUnit.MILLISECONDS.toMinutes(entry.getAgeMillis()));
+        } else {
+            metrics.recordCacheEviction();
+            logger.info("Table évincée du cache (bornes atteintes): {}", baseCurrency);
+        }
+        if (crossRateMode && baseCurrency.equals(pivotCurrency)) {
+            rateMatrix = null;
+        }
+    }
+    
+    private void refreshHotEntries() {
+        if (refreshAheadMinHits <= 0) {
+            return;
+        }
+        // Rafraîchir avant expiration les devises les plus demandées
+        long refreshAheadAge = softTtlMillis - softTtlMillis / 10;
+        rateCache.forEach((baseCurrency, entry) -> {
+            if (entry.isLoaded() && entry.getAgeMillis() >= refreshAheadAge
+                    && entry.getAccessCount() >= refreshAheadMinHits) {
+                scheduleRefresh(baseCurrency, entry);
+            }
+        });
+    }
+    
+    // Requêtes couvertes: si le fournisseur en cours dépasse son budget de latence (son p95),
+    // le suivant est interrogé en parallèle et la première table valide l'emporte
+    private CacheEntry fetchExchangeRates(String baseCurrency, long peerTimeoutMs) {
+        // Mode cluster: la table d'un membre mieux classé évite un appel au fournisseur public.
+        // Sa date de récupération est conservée, pour que les TTL restent alignés sur tout le cluster
+        if (clusterPeers != null) {
+            PersistedRateStore.StoredTable shared = clusterPeers.fetch(baseCurrency, softTtlMillis, peerTimeoutMs,
+                    metrics);
+            if (shared != null) {
+                CacheEntry entry = CacheEntry.loaded(shared.getRates(), RateSource.PEER, shared.getFetchedAtMillis());
+                scheduleHistoryRecord(entry);
+                return entry;
+            }
+        }
+        
+        logger.info("Récupération des taux de change depuis l'API pour: {}", baseCurrency);
+        
+        BlockingQueue<ProviderResult> completions = new LinkedBlockingQueue<>();
+        int nextProvider = startNextProvider(baseCurrency, 0, completions);
+        int inFlight = nextProvider < 0 ? 0 : 1;
+        int waitingProvider = nextProvider - 1;
+        
+        try {
+            while (inFlight > 0) {
+                ProviderResult result;
+                if (hedgingEnabled && nextProvider >= 0 && nextProvider < providers.size()) {
+                    result = completions.poll(hedgeDelayNanos(providers.get(waitingProvider)), TimeUnit.NANOSECONDS);
+                    if (result == null) {
+                        int started = startNextProvider(baseCurrency, nextProvider, completions);
+                        if (started >= 0) {
+                            logger.info("API {} trop lente pour {}: requête couverte vers l'API {}",
+                                    providers.get(waitingProvider).getSource().getLabel(), baseCurrency,
+                                    providers.get(started - 1).getSource().getLabel());
+                            metrics.recordHedgedRequest();
+                            waitingProvider = started - 1;
+                            inFlight++;
+                        }
+                        nextProvider = started;
+                        continue;
+                    }
+                } else {
+                    result = completions.take();
                 }
                 
-                ExchangeRateResponse exchangeRates = gson.fromJson(responseBody, ExchangeRateResponse.class);
-                
-                // Certaines APIs n'utilisent pas le champ "success"
-                if (exchangeRates.getRates() == null || exchangeRates.getRates().isEmpty()) {
-                    throw new IOException("Réponse API invalide: aucun taux de change trouvé");
+                inFlight--;
+                if (result.getRates() != null) {
+                    CacheEntry entry = CacheEntry.loaded(result.getRates(), result.getSource());
+                    scheduleHistoryRecord(entry);
+                    return entry;
                 }
-                
-                // Marquer comme succès si les taux sont présents
-                exchangeRates.setSuccess(true);
-                if (exchangeRates.getBase() == null) {
-                    exchangeRates.setBase(apiUrl.contains("base=") ? 
-                        apiUrl.substring(apiUrl.indexOf("base=") + 5) : "USD");
+                // Échec avant l'expiration du budget: passer immédiatement au fournisseur suivant
+                if (inFlight == 0 && nextProvider >= 0 && nextProvider < providers.size()) {
+                    nextProvider = startNextProvider(baseCurrency, nextProvider, completions);
+                    if (nextProvider >= 0) {
+                        waitingProvider = nextProvider - 1;
+                        inFlight++;
+                    }
                 }
-                
-                return exchangeRates;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Récupération des taux interrompue pour: {}", baseCurrency);
         }
+        
+        // Si aucune API ne fonctionne, utiliser des taux de change fixes pour le développement
+        logger.warn("Utilisation des taux de change fixes (mode dégradé)");
+        return null;
     }
     
-    private ExchangeRateResponse getFallbackExchangeRates(String baseCurrency) {
-        ExchangeRateResponse fallbackResponse = new ExchangeRateResponse();
-        fallbackResponse.setSuccess(true);
-        fallbackResponse.setBase(baseCurrency);
-        fallbackResponse.setTimestamp(System.currentTimeMillis() / 1000);
-        
+    // Lance le premier fournisseur disponible à partir de l'index donné; renvoie l'index suivant, ou -1
+    private int startNextProvider(String baseCurrency, int fromIndex, BlockingQueue<ProviderResult> completions) {
+        for (int i = fromIndex; i < providers.size(); i++) {
+            RateProvider provider = providers.get(i);
+            CircuitBreaker breaker = circuitBreakers.get(i);
+            if (!breaker.tryAcquire()) {
+                logger.debug("Disjoncteur ouvert, API {} ignorée", provider.getSource().getLabel());
+                metrics.recordCircuitRejection(provider.getSource());
+                continue;
+            }
+            try {
+                refreshExecutor.execute(() -> completions.add(fetchFromProvider(provider, breaker, baseCurrency)));
+            } catch (RejectedExecutionException e) {
+                // Service en cours d'arrêt: appel direct dans le thread courant
+                completions.add(fetchFromProvider(provider, breaker, baseCurrency));
+            }
+            return i + 1;
+        }
+        return -1;
+    }
+    
+    private long hedgeDelayNanos(RateProvider provider) {
+        LatencyHistogram latency = metrics.getUpstreamLatency(provider.getSource());
+        if (latency.getCount() < HEDGE_MIN_SAMPLES) {
+            return hedgeMaxDelayNanos;
+        }
+        return Math.min(hedgeMaxDelayNanos, Math.max(hedgeMinDelayNanos, latency.getQuantileNanos(0.95)));
+    }
+    
+    // Le résultat de l'appel est toujours enregistré, y compris quand il lève une Error: sinon un essai
+    // semi-ouvert ne serait jamais soldé et le disjoncteur resterait semi-ouvert, fournisseur ignoré
+    ProviderResult fetchFromProvider(RateProvider provider, CircuitBreaker breaker, String baseCurrency) {
+        RateSource source = provider.getSource();
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            RateTable rates = provider.fetchRates(baseCurrency);
+            succeeded = true;
+            return new ProviderResult(source, rates);
+        } catch (Exception e) {
+            logger.warn("Échec de l'API {}: {}", source == RateSource.PRIMARY ? "principale" : "de fallback",
+                    e.getMessage());
+            return new ProviderResult(source, null);
+        } finally {
+            metrics.recordUpstreamCall(source, System.nanoTime() - start, succeeded);
+            if (succeeded) {
+                breaker.recordSuccess();
+            } else if (breaker.recordFailure()) {
+                logger.warn("Disjoncteur ouvert pour l'API {}", source.getLabel());
+            }
+        }
+    }
+    
+    // Table servie aux autres membres du cluster: jamais les taux fixes, qui ne sont pas mis en cache.
+    // Un pair refuse une table plus ancienne que le TTL souple: elle est rafraîchie ici avant d'être
+    // servie, sinon chaque membre appellerait lui-même le fournisseur.
+    // Le demandeur n'attend que callerTimeoutMs: les membres mieux classés n'ont ici que la moitié de ce
+    // délai, pour qu'une récupération auprès du fournisseur tienne encore dans l'autre moitié. Sans cela,
+    // toute la chaîne abandonnerait au même instant et chaque membre appellerait le fournisseur.
+    public PersistedRateStore.StoredTable getRatesForPeer(String baseCurrency, long callerTimeoutMs)
+            throws IOException {
+        CacheEntry cached = rateCache.get(baseCurrency);
+        if (cached != null && !cached.isLoaded()) {
+            awaitPendingFetch(baseCurrency, cached.getFuture());
+        } else if (cached == null || cached.getAgeMillis() >= softTtlMillis) {
+            refreshNow(baseCurrency, cached, callerTimeoutMs / 2);
+        } else {
+            getExchangeRates(baseCurrency);
+        }
+        CacheEntry entry = rateCache.get(baseCurrency);
+        if (entry == null || !entry.isLoaded()) {
+            return null;
+        }
+        return new PersistedRateStore.StoredTable(entry.getRates(), entry.getFetchedAtMillis());
+    }
+    
+    // Récupération bloquante d'une table absente ou périmée, coalescée avec celles déjà en cours, y
+    // compris un rafraîchissement en arrière-plan: une seule récupération par table périmée
+    private void refreshNow(String baseCurrency, CacheEntry staleEntry, long peerTimeoutMs) throws IOException {
+        if (staleEntry != null && staleEntry.isLoaded() && staleEntry.getAgeMillis() < hardTtlMillis) {
+            if (staleEntry.claimRefresh()) {
+                refreshEntry(baseCurrency, staleEntry, peerTimeoutMs);
+            } else {
+                awaitRefresh(baseCurrency, staleEntry);
+            }
+            return;
+        }
+        CacheEntry pendingEntry = CacheEntry.pending();
+        CacheEntry current = rateCache.compute(baseCurrency,
+                (key, existing) -> existing == staleEntry ? pendingEntry : existing);
+        if (current == pendingEntry) {
+            loadExchangeRates(baseCurrency, pendingEntry, staleEntry, peerTimeoutMs);
+        } else if (current != null && !current.isLoaded()) {
+            awaitPendingFetch(baseCurrency, current.getFuture());
+        }
+    }
+    
+    private void awaitRefresh(String baseCurrency, CacheEntry staleEntry) throws IOException {
+        CompletableFuture<Void> refresh = staleEntry.getRefresh();
+        if (refresh == null) {
+            return;
+        }
+        try {
+            refresh.get(fetchWaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Délai d'attente dépassé pour le rafraîchissement de: " + baseCurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Attente du rafraîchissement interrompue pour: " + baseCurrency);
+        } catch (ExecutionException e) {
+            // Jamais complété en erreur: endRefresh le termine normalement
+        }
+    }
+    
+    private long peerTimeoutMillis() {
+        return clusterPeers == null ? 0 : clusterPeers.getTimeoutMs();
+    }
+    
+    // Null hors mode cluster
+    public ClusterPeers getClusterPeers() {
+        return clusterPeers;
+    }
+    
+    public CircuitBreaker.State getCircuitState(RateSource source) {
+        for (int i = 0; i < providers.size(); i++) {
+            if (providers.get(i).getSource() == source) {
+                return circuitBreakers.get(i).getState();
+            }
+        }
+        return null;
+    }
+    
+    private RateTable getFallbackExchangeRates(String baseCurrency) {
         // Taux de change fixes approximatifs pour le développement
-        Map<String, BigDecimal> rates = new ConcurrentHashMap<>();
+        Map<String, BigDecimal> rates = new HashMap<>();
         
         switch (baseCurrency.toUpperCase()) {
             case "USD":
@@ -142,6 +899,7 @@ public class ExchangeRateService {
                 rates.put("SGD", new BigDecimal("1.35"));
                 rates.put("HKD", new BigDecimal("7.80"));
                 rates.put("NZD", new BigDecimal("1.40"));
+                rates.put("XOF", new BigDecimal("557.56"));
                 break;
             case "EUR":
                 rates.put("USD", new BigDecimal("1.18"));
@@ -154,34 +912,203 @@ public class ExchangeRateService {
                 rates.put("EUR", new BigDecimal("0.85"));
         }
         
-        fallbackResponse.setRates(rates);
-        return fallbackResponse;
-    }
-    
-    private boolean isCacheExpired(LocalDateTime cacheTime) {
-        return ChronoUnit.MINUTES.between(cacheTime, LocalDateTime.now()) > CACHE_DURATION_MINUTES;
+        return RateTable.fromRates(Currency.fromCode(baseCurrency), System.currentTimeMillis() / 1000, rates);
     }
     
     public void clearCache() {
         rateCache.clear();
+        rateMatrix = null;
+        cacheGeneration.incrementAndGet();
         logger.info("Cache des taux de change vidé");
     }
     
-    private static class CacheEntry {
-        private final ExchangeRateResponse rates;
-        private final LocalDateTime timestamp;
+    @Override
+    public void close() throws IOException {
+        refreshScheduler.shutdownNow();
+        refreshExecutor.shutdownNow();
+        if (persistPending.get()) {
+            persistRates();
+        }
+        try {
+            httpClient.close();
+        } finally {
+            connectionManager.close();
+        }
+        logger.info("Client HTTP des taux de change fermé");
+    }
+    
+    private static class ProviderResult {
+        private final RateSource source;
+        private final RateTable rates;
         
-        public CacheEntry(ExchangeRateResponse rates, LocalDateTime timestamp) {
+        private ProviderResult(RateSource source, RateTable rates) {
+            this.source = source;
             this.rates = rates;
-            this.timestamp = timestamp;
         }
         
-        public ExchangeRateResponse getRates() {
+        public RateSource getSource() {
+            return source;
+        }
+        
+        public RateTable getRates() {
+            return rates;
+        }
+    }
+    
+    public static class CacheStatus {
+        private final String baseCurrency;
+        private final RateSource source;
+        private final long ageMillis;
+        private final boolean stale;
+        private final long weightBytes;
+        
+        public CacheStatus(String baseCurrency, RateSource source, long ageMillis, boolean stale, long weightBytes) {
+            this.baseCurrency = baseCurrency;
+            this.source = source;
+            this.ageMillis = ageMillis;
+            this.stale = stale;
+            this.weightBytes = weightBytes;
+        }
+        
+        public String getBaseCurrency() {
+            return baseCurrency;
+        }
+        
+        public RateSource getSource() {
+            return source;
+        }
+        
+        public long getAgeMillis() {
+            return ageMillis;
+        }
+        
+        public boolean isStale() {
+            return stale;
+        }
+        
+        public long getWeightBytes() {
+            return weightBytes;
+        }
+    }
+    
+    private static class CacheEntry implements BoundedCache.Entry {
+        private static final long REFRESH_RETRY_DELAY_MS = 30000;
+        // Estimation de l'empreinte de l'entrée (futur et compteurs); la table s'estime elle-même
+        private static final long ENTRY_WEIGHT_BYTES = 128;
+        private static final long ACCESS_TIME_RESOLUTION_MS = 1000;
+        
+        private final CompletableFuture<RateTable> future;
+        private final RateTable rates;
+        private final RateSource source;
+        private final long fetchedAtMillis;
+        private final LongAdder accessCount = new LongAdder();
+        // Non nul pendant un rafraîchissement: complété à sa fin, pour ceux qui l'attendent
+        private final AtomicReference<CompletableFuture<Void>> refresh = new AtomicReference<>();
+        private final long weight;
+        private volatile long nextRefreshAttemptMillis;
+        private volatile long lastAccessMillis;
+        
+        private CacheEntry(CompletableFuture<RateTable> future, RateTable rates,
+                           RateSource source, long fetchedAtMillis) {
+            this.future = future;
+            this.rates = rates;
+            this.source = source;
+            this.fetchedAtMillis = fetchedAtMillis;
+            this.weight = ENTRY_WEIGHT_BYTES + (rates == null ? 0 : rates.estimateHeapBytes());
+            this.lastAccessMillis = System.currentTimeMillis();
+        }
+        
+        static CacheEntry pending() {
+            return new CacheEntry(new CompletableFuture<>(), null, null, 0);
+        }
+        
+        static CacheEntry loaded(RateTable rates, RateSource source) {
+            return loaded(rates, source, System.currentTimeMillis());
+        }
+        
+        static CacheEntry loaded(RateTable rates, RateSource source, long fetchedAtMillis) {
+            return new CacheEntry(CompletableFuture.completedFuture(rates), rates, source, fetchedAtMillis);
+        }
+        
+        public RateSource getSource() {
+            return source;
+        }
+        
+        public boolean isLoaded() {
+            return rates != null;
+        }
+        
+        public CompletableFuture<RateTable> getFuture() {
+            return future;
+        }
+        
+        public RateTable getRates() {
             return rates;
         }
         
-        public LocalDateTime getTimestamp() {
-            return timestamp;
+        public long getFetchedAtMillis() {
+            return fetchedAtMillis;
+        }
+        
+        public long getAgeMillis() {
+            return System.currentTimeMillis() - fetchedAtMillis;
+        }
+        
+        public void recordAccess() {
+            accessCount.increment();
+            // Écriture volatile au plus une fois par seconde: la ligne de cache n'est pas disputée à chaque lecture
+            long now = System.currentTimeMillis();
+            if (now - lastAccessMillis >= ACCESS_TIME_RESOLUTION_MS) {
+                lastAccessMillis = now;
+            }
+        }
+        
+        @Override
+        public long getLastAccessMillis() {
+            return lastAccessMillis;
+        }
+        
+        @Override
+        public long getWeight() {
+            return weight;
+        }
+        
+        // Une entrée en attente porte le futur des threads coalescés: jamais évincée
+        @Override
+        public boolean isEvictable() {
+            return rates != null;
+        }
+        
+        public long getAccessCount() {
+            return accessCount.sum();
+        }
+        
+        public LongAdder getAccessCounter() {
+            return accessCount;
+        }
+        
+        // Un seul rafraîchissement à la fois, et pas de nouvel essai immédiat après un échec
+        public boolean tryStartRefresh() {
+            return System.currentTimeMillis() >= nextRefreshAttemptMillis && claimRefresh();
+        }
+        
+        // Sans délai après un échec: pour un appelant qui doit de toute façon attendre une table fraîche
+        boolean claimRefresh() {
+            return refresh.compareAndSet(null, new CompletableFuture<>());
+        }
+        
+        CompletableFuture<Void> getRefresh() {
+            return refresh.get();
+        }
+        
+        public void endRefresh(boolean succeeded) {
+            if (!succeeded) {
+                nextRefreshAttemptMillis = System.currentTimeMillis() + REFRESH_RETRY_DELAY_MS;
+            }
+            CompletableFuture<Void> done = refresh.getAndSet(null);
+            if (done != null) {
+                done.complete(null);
+            }
         }
     }
 }
\ No newline at end of file
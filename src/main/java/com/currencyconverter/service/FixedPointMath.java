@@ -0,0 +1,92 @@
+package com.currencyconverter.service;
+
+/**
+ * Arithmétique décimale sur entiers mis à l'échelle (valeur = unscaled × 10^-scale).
+ *
+ * Chemin rapide des conversions: tant que montant, taux et produit tiennent dans un long,
+ * le résultat est identique à {@code amount.multiply(rate).setScale(scale, HALF_UP)} sans
+ * allouer de BigDecimal intermédiaire. Sinon {@link #UNSUPPORTED} est renvoyé et l'appelant
+ * repasse par BigDecimal.
+ */
+final class FixedPointMath {
+    static final long UNSUPPORTED = Long.MIN_VALUE;
+    static final int MAX_DIGITS = 18;
+    
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+    
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_DIGITS; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    
+    private FixedPointMath() {
+    }
+    
+    // Échelle d'un décimal ASCII simple ("1234.56", "+7", ".5"), ou -1 s'il faut passer par BigDecimal
+    // (exposant, chiffres non ASCII, plus de 18 chiffres, texte invalide)
+    static int parseScale(String text) {
+        int length = text.length();
+        int start = length > 0 && (text.charAt(0) == '+' || text.charAt(0) == '-') ? 1 : 0;
+        int digits = 0;
+        int dot = -1;
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && dot < 0) {
+                dot = i;
+            } else {
+                return -1;
+            }
+        }
+        if (digits == 0 || digits > MAX_DIGITS) {
+            return -1;
+        }
+        return dot < 0 ? 0 : length - dot - 1;
+    }
+    
+    // Valeur non mise à l'échelle d'un texte accepté par parseScale
+    static long parseUnscaled(String text) {
+        long value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            }
+        }
+        return text.charAt(0) == '-' ? -value : value;
+    }
+    
+    // Produit arrondi HALF_UP à l'échelle demandée, ou UNSUPPORTED en cas de dépassement
+    static long multiplyRounded(long amount, int amountScale, long rate, int rateScale, int scale) {
+        long product = amount * rate;
+        if (Math.multiplyHigh(amount, rate) != (product >> 63)) {
+            return UNSUPPORTED;
+        }
+        
+        int productScale = amountScale + rateScale;
+        if (productScale <= scale) {
+            long factor = POWERS_OF_TEN[scale - productScale];
+            long scaled = product * factor;
+            if (Math.multiplyHigh(product, factor) != (scaled >> 63)) {
+                return UNSUPPORTED;
+            }
+            return scaled;
+        }
+        
+        int dropped = productScale - scale;
+        if (dropped > MAX_DIGITS) {
+            return UNSUPPORTED;
+        }
+        long divisor = POWERS_OF_TEN[dropped];
+        long quotient = product / divisor;
+        long remainder = Math.abs(product % divisor);
+        // HALF_UP: à partir de la moitié, arrondi en s'éloignant de zéro
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,69 @@
+package com.currencyconverter.service;
+
+import com.currencyconverter.util.ConfigUtils;
+
+public class HttpClientSettings {
+    private final int maxTotalConnections;
+    private final int maxConnectionsPerRoute;
+    private final int connectTimeoutMs;
+    private final int socketTimeoutMs;
+    private final int connectionRequestTimeoutMs;
+    private final long keepAliveMs;
+    private final int validateAfterInactivityMs;
+    
+    public HttpClientSettings(int maxTotalConnections, int maxConnectionsPerRoute, int connectTimeoutMs,
+                              int socketTimeoutMs, int connectionRequestTimeoutMs, long keepAliveMs,
+                              int validateAfterInactivityMs) {
+        this.maxTotalConnections = maxTotalConnections;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.socketTimeoutMs = socketTimeoutMs;
+        this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+        this.keepAliveMs = keepAliveMs;
+        this.validateAfterInactivityMs = validateAfterInactivityMs;
+    }
+    
+    public static HttpClientSettings defaults() {
+        return new HttpClientSettings(40, 10, 2000, 5000, 1000, 30000, 2000);
+    }
+    
+    public static HttpClientSettings fromSystemProperties() {
+        HttpClientSettings defaults = defaults();
+        return new HttpClientSettings(
+                ConfigUtils.getInt("currency.http.maxTotal", defaults.maxTotalConnections),
+                ConfigUtils.getInt("currency.http.maxPerRoute", defaults.maxConnectionsPerRoute),
+                ConfigUtils.getInt("currency.http.connectTimeoutMs", defaults.connectTimeoutMs),
+                ConfigUtils.getInt("currency.http.socketTimeoutMs", defaults.socketTimeoutMs),
+                ConfigUtils.getInt("currency.http.connectionRequestTimeoutMs", defaults.connectionRequestTimeoutMs),
+                ConfigUtils.getLong("currency.http.keepAliveMs", defaults.keepAliveMs),
+                ConfigUtils.getInt("currency.http.validateAfterInactivityMs", defaults.validateAfterInactivityMs));
+    }
+    
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+    
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+    
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+    
+    public int getSocketTimeoutMs() {
+        return socketTimeoutMs;
+    }
+    
+    public int getConnectionRequestTimeoutMs() {
+        return connectionRequestTimeoutMs;
+    }
+    
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+    
+    public int getValidateAfterInactivityMs() {
+        return validateAfterInactivityMs;
+    }
+}
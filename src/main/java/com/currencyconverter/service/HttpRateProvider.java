@@ -0,0 +1,128 @@
+package com.currencyconverter.service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.model.RateTable;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+// Fournisseur REST: l'URL se termine par la devise de base (".../latest?base=" ou ".../latest/")
+public class HttpRateProvider implements RateProvider {
+
+    private final RateSource source;
+    private final String apiUrl;
+    private final CloseableHttpClient httpClient;
+
+    public HttpRateProvider(RateSource source, String apiUrl, CloseableHttpClient httpClient) {
+        this.source = source;
+        this.apiUrl = apiUrl;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public RateSource getSource() {
+        return source;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    @Override
+    public RateTable fetchRates(String baseCurrency) throws IOException {
+        HttpGet request = new HttpGet(apiUrl + baseCurrency);
+        request.setHeader("Accept", "application/json");
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new IOException("Erreur API: " + response.getStatusLine().getStatusCode() + " - "
+                        + (entity == null ? "" : EntityUtils.toString(entity)));
+            }
+            if (entity == null) {
+                throw new IOException("Réponse API invalide: corps vide");
+            }
+
+            // La fermeture du flux lit le reste du corps: la connexion reste réutilisable
+            try (Reader reader = new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8)) {
+                return readRateTable(new JsonReader(reader), baseCurrency);
+            } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+                throw new IOException("Réponse API invalide: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Lecture en flux: seules les devises supportées sont conservées, le reste du document est sauté
+    static RateTable readRateTable(JsonReader reader, String requestedBase) throws IOException {
+        String base = null;
+        long timestamp = 0;
+        long[] unscaled = new long[Currency.values().length];
+        byte[] scales = RateTable.newScales();
+        boolean ratesFound = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if ("rates".equals(name) && token == JsonToken.BEGIN_OBJECT) {
+                ratesFound |= readRates(reader, unscaled, scales);
+            } else if ("base".equals(name) && token == JsonToken.STRING) {
+                base = reader.nextString();
+            } else if (("timestamp".equals(name) || "time_last_updated".equals(name)) && token == JsonToken.NUMBER) {
+                timestamp = reader.nextLong();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        // Certaines APIs n'utilisent pas le champ "success": seule la présence des taux compte
+        if (!ratesFound) {
+            throw new IOException("Réponse API invalide: aucun taux de change trouvé");
+        }
+        Currency baseCurrency = Currency.lookup(base == null ? requestedBase : base);
+        if (baseCurrency == null) {
+            throw new IOException("Réponse API invalide: devise de base non supportée: " + base);
+        }
+        return new RateTable(baseCurrency, timestamp, unscaled, scales);
+    }
+
+    private static boolean readRates(JsonReader reader, long[] unscaled, byte[] scales) throws IOException {
+        boolean found = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            Currency currency = Currency.lookup(reader.nextName());
+            if (currency == null || reader.peek() != JsonToken.NUMBER) {
+                reader.skipValue();
+                continue;
+            }
+            // Le littéral JSON est lu tel quel: valeur et échelle exactes du fournisseur
+            String literal = reader.nextString();
+            int scale = FixedPointMath.parseScale(literal);
+            if (scale >= 0 && literal.charAt(0) != '-') {
+                long value = FixedPointMath.parseUnscaled(literal);
+                if (value > 0) {
+                    unscaled[currency.ordinal()] = value;
+                    scales[currency.ordinal()] = (byte) scale;
+                    found = true;
+                }
+            } else if (RateTable.putRate(unscaled, scales, currency, new BigDecimal(literal))) {
+                found = true;
+            }
+        }
+        reader.endObject();
+        return found;
+    }
+}
@@ -0,0 +1,224 @@
+package com.currencyconverter.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.model.RateTable;
+import com.currencyconverter.util.ConfigUtils;
+
+// Dernières tables connues sur disque, pour un redémarrage à chaud sans appel réseau
+public class PersistedRateStore {
+    private static final Logger logger = LoggerFactory.getLogger(PersistedRateStore.class);
+    private static final int MAGIC = 0x46585231; // "FXR1"
+    private static final short FORMAT_VERSION = 1;
+    private static final String DEFAULT_FILE = "data/rates-snapshot.bin";
+    private static final Currency[] CURRENCIES = Currency.values();
+    // Plus petites tailles encodées: chaîne vide, deux longs et un compteur; chaîne vide, échelle et longueur
+    private static final int MIN_TABLE_BYTES = 2 + 8 + 8 + 4;
+    private static final int MIN_RATE_BYTES = 2 + 4 + 1;
+    
+    private final Path file;
+    private final boolean memoryMapped;
+    
+    public PersistedRateStore(Path file, boolean memoryMapped) {
+        this.file = file;
+        this.memoryMapped = memoryMapped;
+    }
+    
+    // Retourne null si la persistance est désactivée
+    public static PersistedRateStore fromSystemProperties() {
+        if (!ConfigUtils.getBoolean("currency.snapshot.enabled", true)) {
+            return null;
+        }
+        return new PersistedRateStore(Path.of(ConfigUtils.getString("currency.snapshot.file", DEFAULT_FILE)),
+                ConfigUtils.getBoolean("currency.snapshot.mmap", true));
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    // Écriture atomique: fichier temporaire synchronisé sur disque, puis renommage
+    public synchronized void write(Map<String, StoredTable> tables) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        
+        try {
+            try (FileOutputStream fileStream = new FileOutputStream(tempFile.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileStream))) {
+                writeTables(out, tables);
+                out.flush();
+                fileStream.getFD().sync();
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+    
+    // Retourne une table vide si le fichier est absent; un fichier illisible est ignoré
+    public Map<String, StoredTable> read() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (memoryMapped) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } else {
+                buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            }
+        }
+        
+        try {
+            Map<String, StoredTable> tables = decode(buffer);
+            if (tables == null) {
+                logger.warn("Fichier de taux persistés ignoré (format inconnu): {}", file);
+                return Map.of();
+            }
+            return tables;
+        } catch (RuntimeException e) {
+            logger.warn("Fichier de taux persistés ignoré (tronqué ou corrompu): {}: {}", file, e.toString());
+            return Map.of();
+        }
+    }
+    
+    // Même format que le fichier, en mémoire: encodage binaire de /api/rates
+    public static byte[] encode(Map<String, StoredTable> tables) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 + tables.size() * 512);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            writeTables(out, tables);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+    
+    // Retourne null si l'en-tête n'est pas reconnu. Des données tronquées ou incohérentes lèvent une
+    // RuntimeException (BufferUnderflowException, IllegalArgumentException): à traiter comme corrompues
+    public static Map<String, StoredTable> decode(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+            return null;
+        }
+        
+        // Compteurs vérifiés avant toute allocation: un fichier ou un pair corrompu ne peut pas épuiser la mémoire
+        int tableCount = checkCount(buffer.getInt(), CURRENCIES.length, buffer, MIN_TABLE_BYTES, "tables");
+        Map<String, StoredTable> tables = new LinkedHashMap<>();
+        for (int i = 0; i < tableCount; i++) {
+            String base = readString(buffer);
+            long fetchedAtMillis = buffer.getLong();
+            long timestamp = buffer.getLong();
+            
+            int rateCount = checkCount(buffer.getInt(), CURRENCIES.length, buffer, MIN_RATE_BYTES, "taux");
+            Map<String, BigDecimal> rates = new HashMap<>(rateCount * 2);
+            for (int j = 0; j < rateCount; j++) {
+                String code = readString(buffer);
+                int scale = buffer.getInt();
+                if (scale < 0 || scale > RateTable.MAX_DIGITS) {
+                    throw new IllegalArgumentException("Échelle de taux invalide: " + scale);
+                }
+                // Valeur non mise à l'échelle d'un long: 1 à 8 octets
+                byte[] unscaled = new byte[checkCount(buffer.get() & 0xFF, Long.BYTES, buffer, 1, "octets")];
+                if (unscaled.length == 0) {
+                    throw new IllegalArgumentException("Taux vide pour " + code);
+                }
+                buffer.get(unscaled);
+                rates.put(code, new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            
+            Currency baseCurrency = Currency.lookup(base);
+            if (baseCurrency != null) {
+                tables.put(base, new StoredTable(RateTable.fromRates(baseCurrency, timestamp, rates), fetchedAtMillis));
+            }
+        }
+        return tables;
+    }
+    
+    // Compteur lu dans les données, borné par le maximum du format et par les octets restants
+    private static int checkCount(int count, int max, ByteBuffer buffer, int minBytesEach, String what) {
+        if (count < 0 || count > max || (long) count * minBytesEach > buffer.remaining()) {
+            throw new IllegalArgumentException("Nombre de " + what + " invalide: " + count);
+        }
+        return count;
+    }
+    
+    private static void writeTables(DataOutputStream out, Map<String, StoredTable> tables) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeInt(tables.size());
+        
+        for (Map.Entry<String, StoredTable> entry : tables.entrySet()) {
+            StoredTable table = entry.getValue();
+            writeString(out, entry.getKey());
+            out.writeLong(table.getFetchedAtMillis());
+            out.writeLong(table.getRates().getTimestamp());
+            
+            RateTable rates = table.getRates();
+            out.writeInt(rates.getRateCount());
+            for (Currency currency : Currency.values()) {
+                if (!rates.hasRate(currency)) {
+                    continue;
+                }
+                writeString(out, currency.getCode());
+                byte[] unscaled = BigInteger.valueOf(rates.getUnscaledRate(currency)).toByteArray();
+                out.writeInt(rates.getRateScale(currency));
+                out.writeByte(unscaled.length);
+                out.write(unscaled);
+            }
+        }
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[checkCount(buffer.getShort() & 0xFFFF, 0xFFFF, buffer, 1, "octets")];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    public static class StoredTable {
+        private final RateTable rates;
+        private final long fetchedAtMillis;
+        
+        public StoredTable(RateTable rates, long fetchedAtMillis) {
+            this.rates = rates;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+        
+        public RateTable getRates() {
+            return rates;
+        }
+        
+        public long getFetchedAtMillis() {
+            return fetchedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.currencyconverter.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.model.RateTable;
+import com.currencyconverter.util.ConfigUtils;
+
+/**
+ * Historique des tables de taux, en colonnes sur disque et en ajout seul.
+ *
+ * Un fichier par devise ({@code EUR.col}...) contient, pour chaque table enregistrée, le prix
+ * d'une unité de la devise pivot en entier mis à l'échelle 10^12; {@code timestamps.col} contient
+ * l'instant de chaque table, en ordre croissant. Les fichiers sont lus par projection mémoire:
+ * une recherche par date est une recherche dichotomique sur l'index, sans désérialisation.
+ * Les colonnes de valeurs sont synchronisées sur disque avant l'écriture de l'index: une ligne
+ * interrompue par un arrêt brutal n'est donc jamais indexée, elle est ignorée puis réécrite à
+ * l'ajout suivant. Une valeur nulle (trou de fichier) est lue comme un taux absent.
+ */
+public class RateHistoryStore {
+    private static final Logger logger = LoggerFactory.getLogger(RateHistoryStore.class);
+    private static final int MAGIC = 0x46584831; // "FXH1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SCALE = 12;
+    private static final long MISSING = Long.MIN_VALUE;
+    private static final String DEFAULT_DIRECTORY = "data/history";
+    private static final String TIMESTAMP_COLUMN = "timestamps.col";
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final MathContext RATE_CONTEXT = new MathContext(12, RoundingMode.HALF_EVEN);
+
+    private final Path directory;
+    private final Currency pivot;
+    private volatile Columns columns;
+
+    public RateHistoryStore(Path directory, Currency pivot) {
+        this.directory = directory;
+        this.pivot = pivot;
+    }
+
+    // Retourne null si l'historique est désactivé
+    public static RateHistoryStore fromSystemProperties(Currency pivot) {
+        if (!ConfigUtils.getBoolean("currency.history.enabled", true)) {
+            return null;
+        }
+        return new RateHistoryStore(Path.of(ConfigUtils.getString("currency.history.dir", DEFAULT_DIRECTORY)), pivot);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int size() throws IOException {
+        return columns().rows;
+    }
+
+    // Enregistre une table (de base quelconque) ramenée à la devise pivot; ignorée si elle
+    // n'est pas plus récente que la dernière ligne ou si elle ne contient pas la devise pivot
+    public synchronized boolean append(RateTable table, long timestampMillis) throws IOException {
+        Columns current = columns();
+        if (!current.writable) {
+            return false;
+        }
+        if (current.rows > 0 && timestampMillis <= current.getTimestamp(current.rows - 1)) {
+            return false;
+        }
+
+        long[] row = normalize(table);
+        if (row == null) {
+            return false;
+        }
+
+        Files.createDirectories(directory);
+        long offset = HEADER_BYTES + (long) current.rows * Long.BYTES;
+        ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+        for (Currency currency : CURRENCIES) {
+            value.clear();
+            value.putLong(row[currency.ordinal()]).flip();
+            writeAt(directory.resolve(currency.getCode() + ".col"), offset, value);
+        }
+        // Index écrit seulement une fois toutes les valeurs de la ligne sur disque
+        value.clear();
+        value.putLong(timestampMillis).flip();
+        writeAt(directory.resolve(TIMESTAMP_COLUMN), offset, value);
+
+        columns = map();
+        return true;
+    }
+
+    // Taux from -> to en vigueur à l'instant donné (dernière table enregistrée au plus tard à cet instant)
+    public BigDecimal getRate(Currency from, Currency to, long atMillis) throws IOException {
+        Columns current = columns();
+        int row = current.findRow(atMillis);
+        if (row < 0) {
+            throw new IllegalArgumentException("Aucun taux historique disponible à cette date");
+        }
+
+        if (from == to) {
+            return BigDecimal.ONE;
+        }
+        long fromValue = current.getValue(from, row);
+        long toValue = current.getValue(to, row);
+        if (isMissing(fromValue) || isMissing(toValue)) {
+            Currency missing = isMissing(toValue) ? to : from;
+            throw new IllegalArgumentException("Taux historique non disponible pour: " + missing.getCode());
+        }
+
+        BigDecimal toRate = BigDecimal.valueOf(toValue, SCALE);
+        if (from == pivot) {
+            return stripZeros(toRate);
+        }
+        return stripZeros(toRate.divide(BigDecimal.valueOf(fromValue, SCALE), RATE_CONTEXT));
+    }
+
+    // Instant de la table utilisée pour une date donnée, ou -1 si aucune
+    public long getEffectiveTimestamp(long atMillis) throws IOException {
+        Columns current = columns();
+        int row = current.findRow(atMillis);
+        return row < 0 ? -1 : current.getTimestamp(row);
+    }
+
+    private long[] normalize(RateTable table) {
+        Currency base = table.getBase();
+        BigDecimal pivotPerBase = base == pivot ? BigDecimal.ONE : table.getRate(pivot);
+        if (pivotPerBase == null) {
+            return null;
+        }
+
+        long[] row = new long[CURRENCIES.length];
+        for (Currency currency : CURRENCIES) {
+            BigDecimal perBase = currency == base ? BigDecimal.ONE : table.getRate(currency);
+            row[currency.ordinal()] = perBase == null
+                    ? MISSING : toFixedPoint(base == pivot ? perBase : perBase.divide(pivotPerBase, RATE_CONTEXT));
+        }
+        return row;
+    }
+
+    // Taux trop petit pour l'échelle (arrondi à zéro) ou trop grand: enregistré comme absent
+    private static long toFixedPoint(BigDecimal rate) {
+        try {
+            long value = rate.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+            return value > 0 ? value : MISSING;
+        } catch (ArithmeticException e) {
+            return MISSING;
+        }
+    }
+    
+    // MISSING, ou zéro d'un trou de fichier: jamais un taux enregistré, ne doit pas servir de diviseur
+    private static boolean isMissing(long value) {
+        return value <= 0;
+    }
+
+    private static BigDecimal stripZeros(BigDecimal rate) {
+        BigDecimal stripped = rate.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+
+    private static void writeAt(Path file, long offset, ByteBuffer value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(SCALE).putInt(0).flip();
+                channel.write(header, 0);
+            }
+            // Colonne plus courte que l'index (devise ajoutée depuis): lignes manquantes comblées
+            long position = Math.max(HEADER_BYTES, channel.size() - (channel.size() - HEADER_BYTES) % Long.BYTES);
+            ByteBuffer missing = ByteBuffer.allocate(Long.BYTES);
+            for (; position < offset; position += Long.BYTES) {
+                missing.clear();
+                missing.putLong(MISSING).flip();
+                channel.write(missing, position);
+            }
+            while (value.hasRemaining()) {
+                channel.write(value, offset + value.position());
+            }
+            channel.force(false);
+        }
+    }
+
+    private Columns columns() throws IOException {
+        Columns current = columns;
+        if (current == null) {
+            synchronized (this) {
+                current = columns;
+                if (current == null) {
+                    current = map();
+                    columns = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Columns map() throws IOException {
+        ByteBuffer timestamps = mapColumn(directory.resolve(TIMESTAMP_COLUMN));
+        boolean writable = timestamps != null || !Files.exists(directory.resolve(TIMESTAMP_COLUMN));
+        ByteBuffer[] values = new ByteBuffer[CURRENCIES.length];
+        for (Currency currency : CURRENCIES) {
+            values[currency.ordinal()] = mapColumn(directory.resolve(currency.getCode() + ".col"));
+        }
+        return new Columns(timestamps, values, writable);
+    }
+
+    // Projection en lecture seule; null si la colonne est absente ou d'un format inconnu
+    private static ByteBuffer mapColumn(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size - (size - HEADER_BYTES) % Long.BYTES);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || buffer.getInt(8) != SCALE) {
+                logger.warn("Colonne d'historique ignorée (format inconnu): {}", file);
+                return null;
+            }
+            return buffer;
+        }
+    }
+
+    // Vue projetée des colonnes; les lectures absolues sur les tampons sont sûres entre threads
+    private static final class Columns {
+        private final ByteBuffer timestamps;
+        private final ByteBuffer[] values;
+        private final int rows;
+        private final boolean writable;
+
+        private Columns(ByteBuffer timestamps, ByteBuffer[] values, boolean writable) {
+            this.timestamps = timestamps;
+            this.values = values;
+            this.rows = timestamps == null ? 0 : (timestamps.capacity() - HEADER_BYTES) / Long.BYTES;
+            this.writable = writable;
+        }
+
+        private long getTimestamp(int row) {
+            return timestamps.getLong(HEADER_BYTES + row * Long.BYTES);
+        }
+
+        private long getValue(Currency currency, int row) {
+            ByteBuffer column = values[currency.ordinal()];
+            int position = HEADER_BYTES + row * Long.BYTES;
+            if (column == null || position + Long.BYTES > column.capacity()) {
+                return MISSING;
+            }
+            return column.getLong(position);
+        }
+
+        private int findRow(long atMillis) {
+            int low = 0;
+            int high = rows - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (getTimestamp(mid) <= atMillis) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
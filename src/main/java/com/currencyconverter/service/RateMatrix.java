@@ -0,0 +1,159 @@
+package com.currencyconverter.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.model.RateTable;
+
+// Instantané immuable de tous les taux croisés, indexé par Currency.ordinal()
+public final class RateMatrix {
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final int SIZE = CURRENCIES.length;
+    
+    private final Currency pivot;
+    private final BigDecimal[] rates;
+    // Mêmes taux en entiers mis à l'échelle pour FixedPointMath; échelle -1 si non représentable
+    private final long[] unscaledRates;
+    private final byte[] rateScales;
+    private final boolean[] available;
+    private final RateTable source;
+    private final long fetchedAtMillis;
+    private final LongAdder accessCounter;
+    // Tables par devise de base, construites à la demande; course bénigne (RateTable est immuable)
+    private final RateTable[] baseTables = new RateTable[SIZE];
+    
+    private RateMatrix(Currency pivot, BigDecimal[] rates, boolean[] available, RateTable source,
+                       long fetchedAtMillis, LongAdder accessCounter) {
+        this.pivot = pivot;
+        this.rates = rates;
+        this.unscaledRates = new long[rates.length];
+        this.rateScales = new byte[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            BigDecimal rate = rates[i];
+            if (rate != null && rate.scale() >= 0 && rate.scale() <= FixedPointMath.MAX_DIGITS
+                    && rate.precision() <= FixedPointMath.MAX_DIGITS) {
+                unscaledRates[i] = rate.unscaledValue().longValue();
+                rateScales[i] = (byte) rate.scale();
+            } else {
+                rateScales[i] = -1;
+            }
+        }
+        this.available = available;
+        this.source = source;
+        this.fetchedAtMillis = fetchedAtMillis;
+        this.accessCounter = accessCounter;
+    }
+    
+    static RateMatrix fromPivotTable(Currency pivot, RateTable pivotRates, MathContext mathContext,
+                                     long fetchedAtMillis, LongAdder accessCounter) {
+        BigDecimal[] pivotToCurrency = new BigDecimal[SIZE];
+        boolean[] available = new boolean[SIZE];
+        
+        for (Currency currency : CURRENCIES) {
+            BigDecimal rate = currency == pivot ? BigDecimal.ONE : pivotRates.getRate(currency);
+            if (rate != null) {
+                pivotToCurrency[currency.ordinal()] = rate;
+                available[currency.ordinal()] = true;
+            }
+        }
+        
+        // from -> pivot -> to; les paires depuis la devise pivot conservent le taux exact du fournisseur
+        BigDecimal[] rates = new BigDecimal[SIZE * SIZE];
+        for (int from = 0; from < SIZE; from++) {
+            if (!available[from]) {
+                continue;
+            }
+            for (int to = 0; to < SIZE; to++) {
+                if (!available[to]) {
+                    continue;
+                }
+                BigDecimal rate;
+                if (from == to) {
+                    rate = BigDecimal.ONE;
+                } else if (from == pivot.ordinal()) {
+                    rate = pivotToCurrency[to];
+                } else {
+                    rate = pivotToCurrency[to].divide(pivotToCurrency[from], mathContext);
+                }
+                rates[from * SIZE + to] = rate;
+            }
+        }
+        
+        return new RateMatrix(pivot, rates, available, pivotRates, fetchedAtMillis, accessCounter);
+    }
+    
+    // Retourne null si l'une des deux devises est absente de la table pivot
+    public BigDecimal getRate(Currency from, Currency to) {
+        return rates[from.ordinal() * SIZE + to.ordinal()];
+    }
+    
+    public BigDecimal requireRate(Currency from, Currency to) {
+        BigDecimal rate = getRate(from, to);
+        if (rate == null) {
+            Currency missing = isAvailable(to) ? from : to;
+            throw new IllegalArgumentException("Taux de change non disponible pour: " + missing.getCode());
+        }
+        return rate;
+    }
+    
+    long getUnscaledRate(Currency from, Currency to) {
+        return unscaledRates[from.ordinal() * SIZE + to.ordinal()];
+    }
+    
+    int getRateScale(Currency from, Currency to) {
+        return rateScales[from.ordinal() * SIZE + to.ordinal()];
+    }
+    
+    // Table d'une devise de base, dérivée de la matrice sans appel au fournisseur; null si la devise
+    // est absente de la table pivot. Une même matrice renvoie toujours la même instance
+    public RateTable getRateTable(Currency base) {
+        if (base == pivot) {
+            return source;
+        }
+        if (!isAvailable(base)) {
+            return null;
+        }
+        RateTable table = baseTables[base.ordinal()];
+        if (table == null) {
+            long[] unscaled = new long[SIZE];
+            byte[] scales = RateTable.newScales();
+            for (Currency currency : CURRENCIES) {
+                BigDecimal rate = getRate(base, currency);
+                if (rate != null) {
+                    RateTable.putRate(unscaled, scales, currency, rate);
+                }
+            }
+            table = new RateTable(base, source.getTimestamp(), unscaled, scales);
+            baseTables[base.ordinal()] = table;
+        }
+        return table;
+    }
+    
+    public boolean isAvailable(Currency currency) {
+        return available[currency.ordinal()];
+    }
+    
+    public Currency getPivot() {
+        return pivot;
+    }
+    
+    public long getFetchedAtMillis() {
+        return fetchedAtMillis;
+    }
+    
+    public long getAgeMillis() {
+        return System.currentTimeMillis() - fetchedAtMillis;
+    }
+    
+    boolean isBuiltFrom(RateTable pivotRates) {
+        return source == pivotRates;
+    }
+    
+    void recordAccess() {
+        if (accessCounter != null) {
+            accessCounter.increment();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.currencyconverter.service;
+
+import java.io.IOException;
+
+import com.currencyconverter.model.RateTable;
+
+// Source distante d'une table de taux pour une devise de base
+public interface RateProvider {
+
+    RateSource getSource();
+
+    RateTable fetchRates(String baseCurrency) throws IOException;
+}
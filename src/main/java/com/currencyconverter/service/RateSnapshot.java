@@ -0,0 +1,44 @@
+package com.currencyconverter.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.currencyconverter.model.Currency;
+
+// Taux figés pour toute la durée d'un traitement par lot: une seule recherche par paire de devises
+public class RateSnapshot {
+    private static final int SIZE = Currency.values().length;
+    
+    private final ExchangeRateService exchangeRateService;
+    private final RateMatrix matrix;
+    private final BigDecimal[] directRates;
+    
+    RateSnapshot(ExchangeRateService exchangeRateService) throws IOException {
+        this.exchangeRateService = exchangeRateService;
+        if (exchangeRateService.isCrossRateMode()) {
+            this.matrix = exchangeRateService.getRateMatrix();
+            this.directRates = null;
+        } else {
+            this.matrix = null;
+            this.directRates = new BigDecimal[SIZE * SIZE];
+        }
+    }
+    
+    public BigDecimal getRate(Currency from, Currency to) throws IOException {
+        if (from == to) {
+            return BigDecimal.ONE;
+        }
+        
+        if (matrix != null) {
+            return matrix.requireRate(from, to);
+        }
+        
+        int index = from.ordinal() * SIZE + to.ordinal();
+        BigDecimal rate = directRates[index];
+        if (rate == null) {
+            rate = exchangeRateService.getExchangeRate(from, to);
+            directRates[index] = rate;
+        }
+        return rate;
+    }
+}
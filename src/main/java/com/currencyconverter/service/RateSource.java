@@ -0,0 +1,20 @@
+package com.currencyconverter.service;
+
+// Origine d'une table de taux servie par le cache
+public enum RateSource {
+    PRIMARY("primary"),
+    FALLBACK("fallback"),
+    SNAPSHOT("snapshot"),
+    PEER("peer"),
+    HARDCODED("hardcoded");
+
+    private final String label;
+
+    RateSource(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
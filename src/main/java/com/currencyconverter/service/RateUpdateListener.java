@@ -0,0 +1,9 @@
+package com.currencyconverter.service;
+
+import com.currencyconverter.model.RateTable;
+
+// Notifié à chaque table de taux stockée dans le cache (récupération ou rafraîchissement).
+// Appelé depuis le thread de récupération: l'implémentation ne doit pas bloquer
+public interface RateUpdateListener {
+    void onRatesUpdated(RateTable rates);
+}
@@ -0,0 +1,75 @@
+package com.currencyconverter.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Instantané immuable et versionné des tables chargées dans le cache, exporté par /api/rates.
+ *
+ * La version ne change que si le contenu change (table rafraîchie, ajoutée ou retirée); elle est
+ * croissante et dérivée de l'horloge, donc distincte d'un redémarrage à l'autre. Elle sert d'ETag
+ * à /api/rates et à /api/convert.
+ */
+public final class VersionedRates {
+    private final long version;
+    private final SortedMap<String, PersistedRateStore.StoredTable> tables;
+    private final long expiresAtMillis;
+    // Génération du cache lue avant la construction: un instantané à jour n'est pas reconstruit
+    final long cacheGeneration;
+
+    VersionedRates(long version, Map<String, PersistedRateStore.StoredTable> tables, long softTtlMillis,
+                   long cacheGeneration) {
+        this.version = version;
+        this.tables = Collections.unmodifiableSortedMap(new TreeMap<>(tables));
+        long expiresAt = Long.MAX_VALUE;
+        for (PersistedRateStore.StoredTable table : tables.values()) {
+            expiresAt = Math.min(expiresAt, table.getFetchedAtMillis() + softTtlMillis);
+        }
+        this.expiresAtMillis = tables.isEmpty() ? 0 : expiresAt;
+        this.cacheGeneration = cacheGeneration;
+    }
+
+    // Même contenu, génération du cache plus récente
+    VersionedRates withGeneration(long generation, long softTtlMillis) {
+        return new VersionedRates(version, tables, softTtlMillis, generation);
+    }
+
+    // Contenu identique: mêmes bases, mêmes instances de table, même date de récupération
+    boolean hasSameTables(Map<String, PersistedRateStore.StoredTable> other) {
+        if (other.size() != tables.size()) {
+            return false;
+        }
+        for (Map.Entry<String, PersistedRateStore.StoredTable> entry : other.entrySet()) {
+            PersistedRateStore.StoredTable table = tables.get(entry.getKey());
+            if (table == null || table.getRates() != entry.getValue().getRates()
+                    || table.getFetchedAtMillis() != entry.getValue().getFetchedAtMillis()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Tables par devise de base, triées par code
+    public SortedMap<String, PersistedRateStore.StoredTable> getTables() {
+        return tables;
+    }
+
+    public boolean isEmpty() {
+        return tables.isEmpty();
+    }
+
+    // Fin de fraîcheur de la plus ancienne table: aucun rafraîchissement n'est attendu avant
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public long getMaxAgeSeconds() {
+        return Math.max(0, (expiresAtMillis - System.currentTimeMillis()) / 1000);
+    }
+}
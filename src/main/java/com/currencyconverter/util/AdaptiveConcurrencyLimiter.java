@@ -0,0 +1,80 @@
+package com.currencyconverter.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite adaptative du nombre de requêtes en cours (AIMD).
+ *
+ * Une requête terminée sous la latence cible alors que la limite est au moins à moitié utilisée
+ * l'augmente de 1/limite (environ +1 par limite entière de requêtes réussies). Une requête plus lente
+ * que la cible, ou signalée en surcharge, la multiplie par le facteur de recul, au plus une fois par
+ * latence cible: les requêtes lentes en cours au même moment ne la font baisser qu'une fois.
+ */
+public final class AdaptiveConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int currentLimit;
+    // Valeur fractionnaire de la limite et date de la dernière baisse, protégées par this
+    private double limit;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Bornes de limite invalides: " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.currentLimit = (int) limit;
+        this.lastDecreaseNanos = System.nanoTime() - targetLatencyNanos;
+    }
+
+    public boolean tryAcquire() {
+        int max = currentLimit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // À appeler une fois par tryAcquire réussi, avec la latence observée
+    public void release(long latencyNanos, boolean overloaded) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        boolean slow = overloaded || latencyNanos > targetLatencyNanos;
+        // Cas courant: requête rapide et limite peu utilisée, rien à ajuster
+        if (!slow && inFlightBefore * 2 < currentLimit) {
+            return;
+        }
+        synchronized (this) {
+            if (slow) {
+                long now = System.nanoTime();
+                if (now - lastDecreaseNanos < targetLatencyNanos) {
+                    return;
+                }
+                lastDecreaseNanos = now;
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,215 @@
+package com.currencyconverter.util;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.currencyconverter.controller.AppContextListener;
+import com.currencyconverter.controller.ConversionJsonWriter;
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.service.ExchangeRateService;
+
+/**
+ * Contrôle d'admission de /api/convert: en surcharge, les requêtes en trop sont refusées tout de
+ * suite au lieu de s'accumuler et de ralentir tout le monde.
+ *
+ * Les conversions servies depuis le cache et celles qui attendent un fournisseur ont chacune leur
+ * limite adaptative: quand les fournisseurs ralentissent, seule la seconde baisse et le trafic servi
+ * depuis le cache garde sa latence. Un client qui dépasse son débit reçoit 429, une requête refusée
+ * faute de capacité reçoit 503; les deux avec Retry-After. La limite par client est désactivée par
+ * défaut, sauf si les clients sont identifiés par un X-Forwarded-For de confiance.
+ */
+public class AdmissionControlFilter implements Filter {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    public static final String CONTEXT_ATTRIBUTE = "currencyconverter.admissionControl";
+    private static final int CACHE_RETRY_AFTER_SECONDS = 1;
+    private static final int UPSTREAM_RETRY_AFTER_SECONDS = 5;
+
+    private boolean enabled;
+    private boolean trustForwardedFor;
+    private ExchangeRateService exchangeRateService;
+    private AdaptiveConcurrencyLimiter cacheLimiter;
+    private AdaptiveConcurrencyLimiter upstreamLimiter;
+    private ClientRateLimiter clientRateLimiter;
+    private final LongAdder clientRateRejections = new LongAdder();
+    private final LongAdder cacheRejections = new LongAdder();
+    private final LongAdder upstreamRejections = new LongAdder();
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        this.enabled = ConfigUtils.getBoolean("currency.admission.enabled", true);
+        if (!enabled) {
+            logger.info("Contrôle d'admission désactivé");
+            return;
+        }
+        this.exchangeRateService = (ExchangeRateService) filterConfig.getServletContext()
+                .getAttribute(AppContextListener.EXCHANGE_RATE_SERVICE);
+        if (exchangeRateService == null) {
+            throw new ServletException("Service de taux de change non initialisé");
+        }
+        this.cacheLimiter = new AdaptiveConcurrencyLimiter(
+                ConfigUtils.getInt("currency.admission.initialLimit", 200),
+                ConfigUtils.getInt("currency.admission.minLimit", 20),
+                ConfigUtils.getInt("currency.admission.maxLimit", 1000),
+                TimeUnit.MILLISECONDS.toNanos(ConfigUtils.getLong("currency.admission.targetLatencyMs", 100)));
+        this.upstreamLimiter = new AdaptiveConcurrencyLimiter(
+                ConfigUtils.getInt("currency.admission.upstream.initialLimit", 20),
+                ConfigUtils.getInt("currency.admission.upstream.minLimit", 2),
+                ConfigUtils.getInt("currency.admission.upstream.maxLimit", 200),
+                TimeUnit.MILLISECONDS.toNanos(ConfigUtils.getLong("currency.admission.upstream.targetLatencyMs", 3000)));
+        this.trustForwardedFor = ConfigUtils.getBoolean("currency.admission.trustForwardedFor", false);
+        // Sans X-Forwarded-For de confiance, tous les clients d'un proxy partagent une adresse:
+        // la limite par client n'est active par défaut que si le client est réellement identifié
+        int clientRate = ConfigUtils.getInt("currency.admission.clientRate", trustForwardedFor ? 50 : 0);
+        if (clientRate > 0) {
+            this.clientRateLimiter = new ClientRateLimiter(clientRate,
+                    ConfigUtils.getInt("currency.admission.clientBurst", 100));
+        }
+        filterConfig.getServletContext().setAttribute(CONTEXT_ATTRIBUTE, this);
+        logger.info("Contrôle d'admission actif (limites initiales {} / {}, débit par client {}/s)",
+                cacheLimiter.getLimit(), upstreamLimiter.getLimit(), clientRate);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        if (!enabled || "OPTIONS".equalsIgnoreCase(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (clientRateLimiter != null) {
+            long waitNanos = clientRateLimiter.tryAcquire(clientKey(httpRequest));
+            if (waitNanos > 0) {
+                clientRateRejections.increment();
+                reject(httpResponse, 429, "Trop de requêtes, réessayez plus tard",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+                return;
+            }
+        }
+
+        boolean upstream = requiresUpstreamFetch(httpRequest);
+        AdaptiveConcurrencyLimiter limiter = upstream ? upstreamLimiter : cacheLimiter;
+        if (!limiter.tryAcquire()) {
+            (upstream ? upstreamRejections : cacheRejections).increment();
+            reject(httpResponse, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Service surchargé, réessayez plus tard",
+                    upstream ? UPSTREAM_RETRY_AFTER_SECONDS : CACHE_RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            chain.doFilter(request, response);
+            // Conversion poursuivie hors du thread du conteneur: la place est rendue à la fin de la réponse
+            if (httpRequest.isAsyncStarted()) {
+                httpRequest.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        limiter.release(System.nanoTime() - start, isOverloaded(httpResponse.getStatus()));
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                limiter.release(System.nanoTime() - start, isOverloaded(httpResponse.getStatus()));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    public AdaptiveConcurrencyLimiter getCacheLimiter() {
+        return cacheLimiter;
+    }
+
+    public AdaptiveConcurrencyLimiter getUpstreamLimiter() {
+        return upstreamLimiter;
+    }
+
+    public long getClientRateRejections() {
+        return clientRateRejections.sum();
+    }
+
+    public long getCacheRejections() {
+        return cacheRejections.sum();
+    }
+
+    public long getUpstreamRejections() {
+        return upstreamRejections.sum();
+    }
+
+    // Même règle que CurrencyConverterServlet: les conversions à une date passée sont servies par l'historique
+    private boolean requiresUpstreamFetch(HttpServletRequest request) {
+        String dateStr = request.getParameter("date");
+        if (dateStr != null && !dateStr.isEmpty()) {
+            try {
+                if (LocalDate.parse(dateStr).isBefore(LocalDate.now(ZoneOffset.UTC))) {
+                    return false;
+                }
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        Currency from = Currency.lookup(request.getParameter("from"));
+        Currency to = Currency.lookup(request.getParameter("to"));
+        return from != null && to != null && !exchangeRateService.isCached(from, to);
+    }
+
+    // Derrière un proxy de confiance, le client est la première adresse de X-Forwarded-For
+    private String clientKey(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // Un 503 du servlet signale un fournisseur défaillant: même effet sur la limite qu'une réponse lente
+    private static boolean isOverloaded(int status) {
+        return status == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+    }
+
+    private static void reject(HttpServletResponse response, int status, String message, long retryAfterSeconds)
+            throws IOException {
+        ConversionJsonWriter json = new ConversionJsonWriter().writeError(status, message, System.currentTimeMillis());
+        response.setStatus(status);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(json.size());
+        json.writeTo(response.getOutputStream());
+    }
+}
@@ -0,0 +1,77 @@
+package com.currencyconverter.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Seaux à jetons par client, répartis sur des segments verrouillés séparément pour que des clients
+ * différents ne se disputent pas un même verrou.
+ *
+ * Chaque segment garde au plus MAX_CLIENTS / STRIPES seaux, le moins récemment utilisé étant retiré
+ * en premier: un client oublié repart avec un seau plein, ce qui borne la mémoire sans pénaliser
+ * personne.
+ */
+public final class ClientRateLimiter {
+    private static final int STRIPES = 64;
+    private static final int MAX_CLIENTS = 65536;
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public ClientRateLimiter(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Débit ou rafale invalide: " + ratePerSecond + "/" + burst);
+        }
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = burst;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(MAX_CLIENTS / STRIPES);
+        }
+    }
+
+    // 0 si la requête est acceptée, sinon le délai en nanosecondes avant le prochain jeton
+    public long tryAcquire(String client) {
+        int hash = client.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(client);
+            if (bucket == null) {
+                bucket = new Bucket(burst, now);
+                stripe.buckets.put(client, bucket);
+            } else {
+                bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.refilledAtNanos) * tokensPerNano);
+                bucket.refilledAtNanos = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<String, Bucket> buckets;
+
+        private Stripe(int capacity) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAtNanos;
+
+        private Bucket(double tokens, long refilledAtNanos) {
+            this.tokens = tokens;
+            this.refilledAtNanos = refilledAtNanos;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.currencyconverter.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * AsyncAppender qui compte les événements abandonnés et le signale dans le journal.
+ *
+ * Un événement est abandonné quand la file passe le seuil de rejet (niveaux INFO et inférieurs) ou,
+ * avec neverBlock, quand elle est pleine. Le décompte est écrit par une ligne WARN, mise en file à la
+ * place de l'événement suivant accepté, au plus une fois par REPORT_INTERVAL_NANOS: les pertes ne
+ * passent plus inaperçues, sans que le signalement lui-même encombre la file.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong unreported = new AtomicLong();
+    private final AtomicLong lastReportNanos = new AtomicLong(System.nanoTime() - REPORT_INTERVAL_NANOS);
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!isStarted()) {
+            return;
+        }
+        if (isDiscarded(event)) {
+            discarded.incrementAndGet();
+            unreported.incrementAndGet();
+            return;
+        }
+        reportDiscards();
+        super.append(event);
+    }
+
+    @Override
+    public void stop() {
+        long count = unreported.getAndSet(0);
+        if (count > 0) {
+            addWarn(count + " événements de log abandonnés non signalés à l'arrêt (" + discarded.get() + " au total)");
+        }
+        super.stop();
+    }
+
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    // Même règle que AsyncAppenderBase: seuil de rejet pour les niveaux faibles, file pleine avec neverBlock
+    private boolean isDiscarded(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        return (remaining < getDiscardingThreshold() && isDiscardable(event))
+                || (isNeverBlock() && remaining == 0);
+    }
+
+    private void reportDiscards() {
+        if (unreported.get() == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastReportNanos.get();
+        if (now - last < REPORT_INTERVAL_NANOS || !lastReportNanos.compareAndSet(last, now)) {
+            return;
+        }
+        long count = unreported.getAndSet(0);
+        LoggerContext loggerContext = (LoggerContext) getContext();
+        super.append(new LoggingEvent(CountingAsyncAppender.class.getName(),
+                loggerContext.getLogger(CountingAsyncAppender.class), Level.WARN,
+                "{} événements de log abandonnés par l'appender {} (file asynchrone saturée, {} au total)",
+                null, new Object[] {count, getName(), discarded.get()}));
+    }
+}
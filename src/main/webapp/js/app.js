@@ -3,6 +3,7 @@ class CurrencyConverter {
         this.apiBaseUrl = '/currency-converter/api';
         this.currencies = [];
         this.lastConversion = null;
+        this.rateTable = null;
         
         this.initializeElements();
         this.attachEventListeners();
@@ -64,6 +65,118 @@ class CurrencyConverter {
         }
     }
     
+    // Table de taux poussée par le serveur (instantané puis deltas), pour la devise source: les
+    // conversions sont calculées localement tant que le flux est ouvert, sinon /api/convert reste utilisé
+    subscribeToRates(base) {
+        if (!window.EventSource || typeof BigInt === 'undefined') {
+            return;
+        }
+        if (this.rateStream) {
+            if (this.rateStreamBase === base) {
+                return;
+            }
+            this.rateStream.close();
+        }
+        
+        this.rateTable = null;
+        this.rateStreamBase = base;
+        const query = base ? `?base=${encodeURIComponent(base)}` : '';
+        this.rateStream = new EventSource(`${this.apiBaseUrl}/rates/stream${query}`);
+        this.rateStream.addEventListener('snapshot', (e) => {
+            const table = JSON.parse(e.data);
+            this.rateTable = { version: table.version, base: table.base, timestamp: table.timestamp, rates: this.parseRates(e.data) };
+        });
+        this.rateStream.addEventListener('delta', (e) => {
+            const delta = JSON.parse(e.data);
+            if (!this.rateTable || this.rateTable.version !== delta.previous) {
+                // Version manquée: le serveur renverra un instantané à la reconnexion
+                this.rateTable = null;
+                return;
+            }
+            Object.assign(this.rateTable.rates, this.parseRates(e.data));
+            (delta.removed || []).forEach(code => delete this.rateTable.rates[code]);
+            this.rateTable.version = delta.version;
+            this.rateTable.timestamp = delta.timestamp;
+        });
+        this.rateStream.addEventListener('error', () => {
+            this.rateTable = null;
+        });
+    }
+    
+    // Taux gardés en texte décimal exact: JSON.parse les arrondirait en double
+    parseRates(data) {
+        const rates = {};
+        const match = /"rates":\{([^}]*)\}/.exec(data);
+        if (match) {
+            for (const [, code, value] of match[1].matchAll(/"([A-Z]{3})":([0-9.]+)/g)) {
+                rates[code] = value;
+            }
+        }
+        return rates;
+    }
+    
+    // Même résultat que le serveur: taux de la table de la devise source, sans division locale,
+    // et montant converti arrondi HALF_UP à 4 décimales
+    convertLocally(amount, fromCurrency, toCurrency) {
+        const table = this.rateTable;
+        if (!table || table.base !== fromCurrency || this.rateStream.readyState !== EventSource.OPEN) {
+            return null;
+        }
+        
+        const exchangeRate = table.rates[toCurrency];
+        const convertedAmount = exchangeRate ? this.multiplyRounded(String(amount), exchangeRate, 4) : null;
+        if (convertedAmount === null) {
+            return null;
+        }
+        
+        return {
+            fromCurrency,
+            toCurrency,
+            amount,
+            convertedAmount: Number(convertedAmount),
+            exchangeRate: Number(exchangeRate),
+            timestamp: table.timestamp
+        };
+    }
+    
+    // amount × rate arrondi HALF_UP à `scale` décimales, en entiers exacts comme BigDecimal côté
+    // serveur; null si un opérande n'est pas un décimal simple (notation exponentielle...)
+    multiplyRounded(amountText, rateText, scale) {
+        const amount = this.parseDecimal(amountText);
+        const rate = this.parseDecimal(rateText);
+        if (!amount || !rate) {
+            return null;
+        }
+        
+        let product = amount.unscaled * rate.unscaled;
+        const productScale = amount.scale + rate.scale;
+        if (productScale <= scale) {
+            product *= 10n ** BigInt(scale - productScale);
+        } else {
+            const divisor = 10n ** BigInt(productScale - scale);
+            const magnitude = product < 0n ? -product : product;
+            let rounded = magnitude / divisor;
+            if (2n * (magnitude % divisor) >= divisor) {
+                rounded += 1n;
+            }
+            product = product < 0n ? -rounded : rounded;
+        }
+        
+        const sign = product < 0n ? '-' : '';
+        const digits = (product < 0n ? -product : product).toString().padStart(scale + 1, '0');
+        return `${sign}${digits.slice(0, -scale)}.${digits.slice(-scale)}`;
+    }
+    
+    parseDecimal(text) {
+        const match = /^(-?)(\d*)(?:\.(\d*))?$/.exec(text);
+        if (!match || match[2] + (match[3] || '') === '') {
+            return null;
+        }
+        const fraction = match[3] || '';
+        const unscaled = BigInt(match[2] + fraction);
+        return { unscaled: match[1] ? -unscaled : unscaled, scale: fraction.length };
+    }
+    
     populateCurrencySelects() {
         const fromSelect = this.elements.fromCurrency;
         const toSelect = this.elements.toCurrency;
@@ -83,6 +196,7 @@ class CurrencyConverter {
     setDefaultCurrencies() {
         this.elements.fromCurrency.value = 'USD';
         this.elements.toCurrency.value = 'EUR';
+        this.subscribeToRates(this.elements.fromCurrency.value);
     }
     
     async handleSubmit(e) {
@@ -124,6 +238,14 @@ class CurrencyConverter {
     }
     
     async performConversion(amount, fromCurrency, toCurrency) {
+        const localResult = this.convertLocally(amount, fromCurrency, toCurrency);
+        if (localResult) {
+            this.hideMessages();
+            this.displayResult(localResult);
+            this.lastConversion = localResult;
+            return;
+        }
+        
         this.setLoadingState(true);
         this.hideMessages();
         
@@ -206,6 +328,9 @@ class CurrencyConverter {
     
     handleCurrencyChange() {
         this.hideMessages();
+        if (this.elements.fromCurrency.value) {
+            this.subscribeToRates(this.elements.fromCurrency.value);
+        }
         if (this.lastConversion && this.shouldAutoConvert()) {
             this.debounceConversion();
         }
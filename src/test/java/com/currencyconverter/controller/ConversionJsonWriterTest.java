@@ -0,0 +1,99 @@
+package com.currencyconverter.controller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+import com.currencyconverter.model.ConversionResult;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+// Le sérialiseur dédié doit produire exactement les octets qu'écrivait Gson
+public class ConversionJsonWriterTest {
+    private static final String[] STRINGS = {
+            "", "EUR", "Devise non supportée: XXX", "guillemet \" et barre \\ oblique",
+            "<script>alert('x') & a=b</script>", "tab\tretour\r\nsaut\fborne\b", "\u0000\u0001\u001f\u007f",
+            "séparateurs \u2028 et \u2029", "€ ¥ £ 円", "émoji 💱 fin", "surrogat isolé \uD83D fin",
+            "fin sur surrogat \uDCB1", "x".repeat(1000)};
+    private static final BigDecimal[] NUMBERS = {
+            BigDecimal.ZERO, BigDecimal.ONE, new BigDecimal("-12.5000"), new BigDecimal("0.000001"),
+            new BigDecimal("1E+3"), new BigDecimal("12345678901234567890.1234"), new BigDecimal("1.23E-10")};
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .create();
+    private final ConversionJsonWriter writer = new ConversionJsonWriter();
+
+    @Test
+    public void conversionResultMatchesGson() {
+        for (String currency : STRINGS) {
+            for (BigDecimal number : NUMBERS) {
+                assertSameBytes(new ConversionResult(currency, "USD", number, number.negate(), BigDecimal.TEN));
+                assertSameBytes(new ConversionResult("EUR", currency, BigDecimal.ONE, number, number));
+            }
+        }
+    }
+
+    @Test
+    public void nullFieldsAreOmittedLikeGson() {
+        assertSameBytes(new ConversionResult(null, null, null, null, null));
+        assertSameBytes(new ConversionResult("EUR", null, BigDecimal.ONE, null, BigDecimal.ONE));
+    }
+
+    @Test
+    public void errorMatchesGson() {
+        long[] timestamps = {0, 1, -1, 1705315845000L, Long.MAX_VALUE, Long.MIN_VALUE};
+        int[] statuses = {400, 404, 429, 503, 0, -1};
+        for (String message : STRINGS) {
+            for (int i = 0; i < timestamps.length; i++) {
+                assertSameError(statuses[i], message, timestamps[i]);
+            }
+        }
+        assertSameError(500, null, 42);
+    }
+
+    @Test
+    public void writerIsReusable() throws IOException {
+        ConversionResult result = new ConversionResult("EUR", "USD", BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN);
+        byte[] first = writer.writeConversionResult(result).toByteArray();
+        writer.writeError(400, "x".repeat(2000), 1);
+        assertArrayEquals(first, writer.writeConversionResult(result).toByteArray());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        assertEquals(writer.size(), out.size());
+        assertArrayEquals(first, out.toByteArray());
+    }
+
+    private void assertSameBytes(ConversionResult result) {
+        byte[] expected = gson.toJson(result).getBytes(StandardCharsets.UTF_8);
+        assertEquals(new String(expected, StandardCharsets.UTF_8),
+                new String(writer.writeConversionResult(result).toByteArray(), StandardCharsets.UTF_8));
+        assertArrayEquals(expected, writer.toByteArray());
+    }
+
+    private void assertSameError(int status, String message, long timestamp) {
+        byte[] expected = gson.toJson(new ErrorResponse(status, message, timestamp)).getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, writer.writeError(status, message, timestamp).toByteArray());
+    }
+
+    // Enveloppe d'erreur telle que la sérialisaient les servlets avec Gson
+    private static class ErrorResponse {
+        private final int status;
+        private final String message;
+        private final long timestamp;
+
+        ErrorResponse(int status, String message, long timestamp) {
+            this.status = status;
+            this.message = message;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.currencyconverter.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.currencyconverter.service.CurrencyConversionService;
+import com.currencyconverter.service.ExchangeRateService;
+import com.currencyconverter.service.HttpClientSettings;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Un client qui ne fait que revalider /api/convert doit quand même faire rafraîchir la table périmée
+public class CurrencyConverterServletRevalidationTest {
+    private static final long SOFT_TTL_MS = 1500;
+    private static final String[] PROPERTIES = {
+            "currency.snapshot.enabled", "currency.history.enabled", "currency.hedge.enabled", "currency.rates.pivot",
+            "currency.cache.softTtlMillis", "currency.cache.hardTtlMillis", "currency.cache.refreshAheadMinHits"};
+
+    private final AtomicInteger providerRequests = new AtomicInteger();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpServer provider;
+    private ExchangeRateService exchangeRateService;
+    private CurrencyConversionService conversionService;
+    private Server server;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.history.enabled", "false");
+        System.setProperty("currency.hedge.enabled", "false");
+        System.setProperty("currency.rates.pivot", "EUR");
+        System.setProperty("currency.cache.softTtlMillis", String.valueOf(SOFT_TTL_MS));
+        System.setProperty("currency.cache.hardTtlMillis", "60000");
+        // Pas de rafraîchissement anticipé: seule la revalidation peut déclencher le rafraîchissement
+        System.setProperty("currency.cache.refreshAheadMinHits", "0");
+
+        provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        provider.createContext("/", this::handle);
+        provider.start();
+        String providerUrl = "http://127.0.0.1:" + provider.getAddress().getPort();
+        exchangeRateService = new ExchangeRateService(HttpClientSettings.fromSystemProperties(),
+                providerUrl + "/latest?base=", providerUrl + "/v4/latest/");
+        conversionService = new CurrencyConversionService(exchangeRateService);
+
+        server = new Server(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        ServletContextHandler context = new ServletContextHandler();
+        context.setContextPath("/");
+        context.setAttribute(AppContextListener.CONVERSION_SERVICE, conversionService);
+        ServletHolder holder = new ServletHolder(new CurrencyConverterServlet());
+        holder.setAsyncSupported(true);
+        context.addServlet(holder, "/api/convert");
+        server.setHandler(context);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+        conversionService.close();
+        exchangeRateService.close();
+        provider.stop(0);
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void revalidationAfterSoftTtlRefreshesTheTable() throws Exception {
+        String etag = loadTable();
+        assertEquals(304, get("from=EUR&to=USD&amount=10", etag).statusCode());
+        assertEquals(1, providerRequests.get());
+
+        TimeUnit.MILLISECONDS.sleep(SOFT_TTL_MS + 200);
+        // La première revalidation sert la table périmée et lance le rafraîchissement en arrière-plan
+        HttpResponse<String> refreshed = get("from=EUR&to=USD&amount=10", etag);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (refreshed.statusCode() == 304 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+            refreshed = get("from=EUR&to=USD&amount=10", etag);
+        }
+        assertEquals(200, refreshed.statusCode());
+        assertNotEquals(etag, refreshed.headers().firstValue("ETag").orElse(null));
+        assertEquals(2, providerRequests.get());
+    }
+
+    @Test
+    public void invalidConversionsAreNeverNotModified() throws Exception {
+        String etag = loadTable();
+        assertEquals(400, get("from=XXX&to=USD&amount=10", etag).statusCode());
+        assertEquals(400, get("from=EUR&to=USD&amount=abc", etag).statusCode());
+        assertEquals(400, get("from=EUR&to=USD&amount=-1", etag).statusCode());
+        assertEquals(400, get("from=EUR&to=USD", etag).statusCode());
+        assertEquals(200, get("from=EUR&to=USD&amount=10", "*").statusCode());
+        assertEquals(304, get("from=EUR&to=USD&amount=10", etag).statusCode());
+    }
+
+    // La première conversion charge la table: son ETag, lu avant le chargement, est déjà dépassé
+    private String loadTable() throws IOException, InterruptedException {
+        assertEquals(200, get("from=EUR&to=USD&amount=10", null).statusCode());
+        HttpResponse<String> response = get("from=EUR&to=USD&amount=10", null);
+        assertEquals(200, response.statusCode());
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private HttpResponse<String> get(String query, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/convert?" + query));
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            providerRequests.incrementAndGet();
+            byte[] body = ("{\"base\":\"EUR\",\"timestamp\":" + System.currentTimeMillis() / 1000
+                    + ",\"rates\":{\"EUR\":1,\"USD\":1.0854,\"GBP\":0.8571,\"JPY\":161.42}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.currencyconverter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.currencyconverter.model.Currency;
+import com.currencyconverter.model.RateTable;
+
+// L'essai semi-ouvert est toujours soldé, même quand le fournisseur lève une Error
+public class CircuitBreakerProbeTest {
+    private static final String[] PROPERTIES = {
+            "currency.snapshot.enabled", "currency.history.enabled", "currency.hedge.enabled"};
+
+    private ExchangeRateService service;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.history.enabled", "false");
+        System.setProperty("currency.hedge.enabled", "false");
+        // Aucun appel réseau: les fournisseurs du test sont passés directement à fetchFromProvider
+        service = new ExchangeRateService(HttpClientSettings.defaults(),
+                "http://127.0.0.1:9/latest?base=", "http://127.0.0.1:9/v4/latest/");
+
+        // Ouvert au premier échec, essai autorisé aussitôt: le disjoncteur passe semi-ouvert
+        breaker = new CircuitBreaker(1, 0);
+        breaker.recordFailure();
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        service.close();
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void errorDuringProbeReopensTheBreaker() {
+        Error failure = new StackOverflowError("essai");
+        try {
+            service.fetchFromProvider(provider(() -> {
+                throw failure;
+            }), breaker, "EUR");
+            fail("L'Error doit être propagée");
+        } catch (StackOverflowError e) {
+            assertSame(failure, e);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1, service.getMetrics().getUpstreamFailures(RateSource.PRIMARY));
+        // Un nouvel essai reste possible à la fin de la période d'ouverture
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void exceptionDuringProbeReopensTheBreaker() {
+        service.fetchFromProvider(provider(() -> {
+            throw new IOException("essai");
+        }), breaker, "EUR");
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void successfulProbeClosesTheBreaker() {
+        service.fetchFromProvider(provider(() -> RateTable.fromRates(Currency.EUR, 0, Map.of())), breaker, "EUR");
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, service.getMetrics().getUpstreamSuccesses(RateSource.PRIMARY));
+    }
+
+    private interface Fetch {
+        RateTable fetch() throws IOException;
+    }
+
+    private static RateProvider provider(Fetch fetch) {
+        return new RateProvider() {
+            @Override
+            public RateSource getSource() {
+                return RateSource.PRIMARY;
+            }
+
+            @Override
+            public RateTable fetchRates(String baseCurrency) throws IOException {
+                return fetch.fetch();
+            }
+        };
+    }
+}
@@ -0,0 +1,294 @@
+package com.currencyconverter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.currencyconverter.controller.AppContextListener;
+import com.currencyconverter.controller.PeerRatesServlet;
+import com.currencyconverter.model.Currency;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Trois instances Jetty en local devant un fournisseur qui compte ses appels
+public class ClusterPeersMultiInstanceTest {
+    private static final int NODES = 3;
+    private static final long SOFT_TTL_MS = 1500;
+    private static final long PEER_TIMEOUT_MS = 1000;
+    private static final String SECRET = "secret-de-test";
+    private static final String[] PROPERTIES = {
+            "currency.snapshot.enabled", "currency.history.enabled", "currency.hedge.enabled", "currency.rates.pivot",
+            "currency.cache.softTtlMillis", "currency.cache.hardTtlMillis", "currency.cache.refreshAheadMinHits",
+            "currency.cluster.peers", "currency.cluster.self", "currency.cluster.timeoutMs", "currency.cluster.secret"};
+
+    private final Map<String, AtomicInteger> providerRequests = new ConcurrentHashMap<>();
+    private final List<Server> servers = new ArrayList<>();
+    private final List<ServletContextHandler> contexts = new ArrayList<>();
+    private final List<String> urls = new ArrayList<>();
+    private final List<ExchangeRateService> services = new ArrayList<>();
+    private HttpServer provider;
+    private HttpServer unresponsivePeer;
+
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.history.enabled", "false");
+        System.setProperty("currency.hedge.enabled", "false");
+        System.setProperty("currency.rates.pivot", "EUR");
+        System.setProperty("currency.cache.softTtlMillis", String.valueOf(SOFT_TTL_MS));
+        System.setProperty("currency.cache.hardTtlMillis", "60000");
+        System.setProperty("currency.cache.refreshAheadMinHits", "0");
+        System.setProperty("currency.cluster.timeoutMs", String.valueOf(PEER_TIMEOUT_MS));
+        System.setProperty("currency.cluster.secret", SECRET);
+
+        provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        provider.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        provider.createContext("/", this::handleProvider);
+        provider.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Server server : servers) {
+            server.stop();
+        }
+        for (ExchangeRateService service : services) {
+            service.close();
+        }
+        provider.stop(0);
+        if (unresponsivePeer != null) {
+            unresponsivePeer.stop(0);
+        }
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void oneUpstreamFetchPerSoftTtlWindow() throws Exception {
+        startCluster(NODES, null);
+
+        // Défauts de cache simultanés sur toutes les instances: le propriétaire récupère pour tout le cluster
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newFixedThreadPool(NODES * 4)) {
+            for (int i = 0; i < NODES * 4; i++) {
+                ExchangeRateService service = services.get(i % NODES);
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return service.getExchangeRates("EUR");
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                assertNotNull(result.get(10, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, upstreamFetches("EUR"));
+        for (ExchangeRateService service : services) {
+            assertEquals(1, service.getVersionedRates().getTables().size());
+        }
+
+        // Après le TTL souple, chaque instance sert la table périmée et la rafraîchit: une seule récupération
+        long firstFetch = services.get(0).getVersionedRates().getTables().get("EUR").getFetchedAtMillis();
+        TimeUnit.MILLISECONDS.sleep(SOFT_TTL_MS + 100);
+        for (ExchangeRateService service : services) {
+            service.getExchangeRates("EUR");
+        }
+        for (ExchangeRateService service : services) {
+            awaitFetchedAfter(service, "EUR", firstFetch);
+        }
+        assertEquals(2, upstreamFetches("EUR"));
+    }
+
+    @Test
+    public void nextRankedMemberFetchesWhenTheOwnerIsDown() throws Exception {
+        startCluster(NODES, null);
+        Currency base = Currency.GBP;
+        int owner = ownerOf(urls, base);
+        servers.get(owner).stop();
+        List<String> survivors = new ArrayList<>(urls);
+        survivors.remove(owner);
+        int next = urls.indexOf(survivors.get(ownerOf(survivors, base)));
+        int last = 3 - owner - next;
+
+        // Le dernier du classement interroge le propriétaire (absent), puis le suivant, qui récupère la table
+        services.get(last).getExchangeRates(base.getCode());
+        services.get(next).getExchangeRates(base.getCode());
+        assertEquals(1, upstreamFetches(base.getCode()));
+        assertEquals(RateSource.PRIMARY, sourceOf(services.get(next), base.getCode()));
+        assertEquals(RateSource.PEER, sourceOf(services.get(last), base.getCode()));
+    }
+
+    @Test
+    public void slowOwnerDoesNotMakeEveryMemberFetch() throws Exception {
+        // Propriétaire qui accepte les connexions mais ne répond jamais
+        unresponsivePeer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        unresponsivePeer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        unresponsivePeer.createContext("/", exchange -> {
+            try {
+                TimeUnit.SECONDS.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        unresponsivePeer.start();
+        String slowUrl = "http://127.0.0.1:" + unresponsivePeer.getAddress().getPort();
+        startCluster(2, slowUrl);
+
+        List<String> members = new ArrayList<>(urls);
+        members.add(slowUrl);
+        Currency base = null;
+        for (Currency candidate : Currency.values()) {
+            if (members.get(ownerOf(members, candidate)).equals(slowUrl)) {
+                base = candidate;
+                break;
+            }
+        }
+        assertNotNull("Aucune devise dont le membre lent est propriétaire", base);
+        int next = ownerOf(urls, base);
+        int last = 1 - next;
+
+        // Le dernier attend le propriétaire puis le suivant; le suivant n'attend le propriétaire que la
+        // moitié du délai, récupère lui-même et répond avant que le dernier n'abandonne
+        services.get(last).getExchangeRates(base.getCode());
+        assertEquals(1, upstreamFetches(base.getCode()));
+        assertEquals(RateSource.PRIMARY, sourceOf(services.get(next), base.getCode()));
+        assertEquals(RateSource.PEER, sourceOf(services.get(last), base.getCode()));
+    }
+
+    @Test
+    public void peerEndpointRequiresTheSharedSecret() throws Exception {
+        startCluster(NODES, null);
+        HttpClient client = HttpClient.newHttpClient();
+        String url = urls.get(0) + ClusterPeers.PEER_PATH + "?base=EUR";
+        HttpResponse<byte[]> anonymous = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(403, anonymous.statusCode());
+        HttpResponse<byte[]> wrongSecret = client.send(HttpRequest.newBuilder(URI.create(url))
+                .header(ClusterPeers.SECRET_HEADER, "autre").build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(403, wrongSecret.statusCode());
+        assertEquals(0, upstreamFetches("EUR"));
+        assertEquals(2, services.get(0).getClusterPeers().getRejectedCallers());
+
+        HttpResponse<byte[]> member = client.send(HttpRequest.newBuilder(URI.create(url))
+                .header(ClusterPeers.SECRET_HEADER, SECRET).build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, member.statusCode());
+    }
+
+    // Démarre les serveurs d'abord pour connaître leurs ports, puis un service et sa servlet par instance
+    private void startCluster(int nodes, String extraMember) throws Exception {
+        for (int i = 0; i < nodes; i++) {
+            Server server = new Server(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            ServletContextHandler context = new ServletContextHandler();
+            context.setContextPath("/");
+            server.setHandler(context);
+            server.start();
+            servers.add(server);
+            contexts.add(context);
+            urls.add("http://127.0.0.1:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort());
+        }
+        List<String> members = new ArrayList<>(urls);
+        if (extraMember != null) {
+            members.add(extraMember);
+        }
+        System.setProperty("currency.cluster.peers", String.join(",", members));
+        String providerUrl = "http://127.0.0.1:" + provider.getAddress().getPort();
+        for (int i = 0; i < nodes; i++) {
+            System.setProperty("currency.cluster.self", urls.get(i));
+            ExchangeRateService service = new ExchangeRateService(HttpClientSettings.fromSystemProperties(),
+                    providerUrl + "/latest?base=", providerUrl + "/v4/latest/");
+            services.add(service);
+            contexts.get(i).setAttribute(AppContextListener.EXCHANGE_RATE_SERVICE, service);
+            // Servlet ajoutée une fois le service en place: son init() le lit dans le contexte
+            contexts.get(i).addServlet(new ServletHolder(new PeerRatesServlet()), ClusterPeers.PEER_PATH);
+        }
+    }
+
+    // Index du propriétaire de la devise parmi members, tel que le calcule chaque instance
+    private static int ownerOf(List<String> members, Currency base) {
+        for (int i = 0; i < members.size(); i++) {
+            if (new ClusterPeers(members.get(i), members, null, PEER_TIMEOUT_MS, SECRET).isOwner(base)) {
+                return i;
+            }
+        }
+        throw new AssertionError("Aucun propriétaire pour " + base);
+    }
+
+    private static RateSource sourceOf(ExchangeRateService service, String base) {
+        for (ExchangeRateService.CacheStatus status : service.getCacheStatus()) {
+            if (status.getBaseCurrency().equals(base)) {
+                return status.getSource();
+            }
+        }
+        return null;
+    }
+
+    private static void awaitFetchedAfter(ExchangeRateService service, String base, long fetchedAtMillis)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            PersistedRateStore.StoredTable table = service.getVersionedRates().getTables().get(base);
+            if (table != null && table.getFetchedAtMillis() > fetchedAtMillis) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertTrue("Table " + base + " non rafraîchie", false);
+    }
+
+    private int upstreamFetches(String base) {
+        AtomicInteger count = providerRequests.get(base);
+        return count == null ? 0 : count.get();
+    }
+
+    private void handleProvider(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String query = exchange.getRequestURI().getQuery();
+            String path = exchange.getRequestURI().getPath();
+            String base = query != null && query.startsWith("base=")
+                    ? query.substring(5) : path.substring(path.lastIndexOf('/') + 1);
+            providerRequests.computeIfAbsent(base, key -> new AtomicInteger()).incrementAndGet();
+            StringBuilder rates = new StringBuilder();
+            for (Currency currency : Currency.values()) {
+                rates.append(rates.length() == 0 ? "" : ",").append('"').append(currency.getCode()).append("\":")
+                        .append(currency.getCode().equals(base) ? "1" : "1.5");
+            }
+            byte[] body = ("{\"base\":\"" + base + "\",\"timestamp\":" + System.currentTimeMillis() / 1000
+                    + ",\"rates\":{" + rates + "}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
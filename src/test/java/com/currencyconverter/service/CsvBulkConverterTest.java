@@ -0,0 +1,113 @@
+package com.currencyconverter.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.currencyconverter.model.BulkConversionSummary;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Découpage des enregistrements CSV: une fin de ligne entre guillemets ne termine pas l'enregistrement
+public class CsvBulkConverterTest {
+    private static final String[] PROPERTIES = {
+            "currency.snapshot.enabled", "currency.history.enabled", "currency.hedge.enabled", "currency.rates.pivot"};
+
+    private HttpServer provider;
+    private ExchangeRateService exchangeRateService;
+    private CurrencyConversionService conversionService;
+    private CsvBulkConverter converter;
+
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.history.enabled", "false");
+        System.setProperty("currency.hedge.enabled", "false");
+        System.setProperty("currency.rates.pivot", "EUR");
+
+        provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        provider.createContext("/", CsvBulkConverterTest::handle);
+        provider.start();
+        String providerUrl = "http://127.0.0.1:" + provider.getAddress().getPort();
+        exchangeRateService = new ExchangeRateService(HttpClientSettings.fromSystemProperties(),
+                providerUrl + "/latest?base=", providerUrl + "/v4/latest/");
+        conversionService = new CurrencyConversionService(exchangeRateService);
+        converter = new CsvBulkConverter(conversionService);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        conversionService.close();
+        exchangeRateService.close();
+        provider.stop(0);
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void quotedFieldWithNewlineStaysInOneRecord() throws IOException {
+        String input = "id,note,from,to,amount\r\n"
+                + "1,\"ligne un\r\nligne \"\"deux\"\"\",EUR,USD,10\r\n"
+                + "2,simple,EUR,USD,2\r\n";
+
+        StringBuilder output = new StringBuilder();
+        BulkConversionSummary summary = convert(input, output);
+
+        assertEquals(2, summary.getRows());
+        assertEquals(0, summary.getFailedRows());
+        assertEquals("id,note,from,to,amount,convertedAmount,exchangeRate,error\r\n"
+                + "1,\"ligne un\r\nligne \"\"deux\"\"\",EUR,USD,10,10.8540,1.0854,\r\n"
+                + "2,simple,EUR,USD,2,2.1708,1.0854,\r\n", output.toString());
+    }
+
+    @Test
+    public void unterminatedQuoteAtEndOfFileIsARowError() throws IOException {
+        String input = "from,to,amount,note\n"
+                + "EUR,USD,10,ok\n"
+                + "EUR,USD,5,\"jamais fermé\nEUR,USD,7,perdu";
+
+        StringBuilder output = new StringBuilder();
+        BulkConversionSummary summary = convert(input, output);
+
+        assertEquals(2, summary.getRows());
+        assertEquals(1, summary.getFailedRows());
+        assertEquals("from,to,amount,note,convertedAmount,exchangeRate,error\n"
+                + "EUR,USD,10,ok,10.8540,1.0854,\n"
+                + "EUR,USD,5,\"jamais fermé\nEUR,USD,7,perdu,,,\"Guillemet fermant manquant en fin de fichier\"",
+                output.toString());
+    }
+
+    private BulkConversionSummary convert(String input, StringBuilder output) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BulkConversionSummary summary = converter.convert(
+                Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(bytes));
+        output.append(bytes.toString(StandardCharsets.UTF_8));
+        return summary;
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = ("{\"base\":\"EUR\",\"timestamp\":" + System.currentTimeMillis() / 1000
+                    + ",\"rates\":{\"EUR\":1,\"USD\":1.0854,\"GBP\":0.8571,\"JPY\":161.42}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
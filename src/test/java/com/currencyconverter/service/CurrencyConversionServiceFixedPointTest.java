@@ -0,0 +1,143 @@
+package com.currencyconverter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.currencyconverter.metrics.ServiceMetrics;
+import com.currencyconverter.model.ConversionResult;
+import com.currencyconverter.model.Currency;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Montant texte converti sur le chemin rapide: mêmes octets que amount.multiply(rate).setScale(4, HALF_UP)
+public class CurrencyConversionServiceFixedPointTest {
+    private static final long SEED = 0xC0FFEEL;
+    private static final int ITERATIONS = 200_000;
+    private static final String[] PROPERTIES = {
+            "currency.snapshot.enabled", "currency.history.enabled", "currency.hedge.enabled", "currency.rates.pivot"};
+    // Échelles variées, dont un taux à 18 chiffres significatifs
+    private static final String RATES = "{\"EUR\":1,\"USD\":1.085432198765432198,\"GBP\":0.8571,\"JPY\":161.42,"
+            + "\"INR\":90.1234567,\"CAD\":1.4683,\"AUD\":1.6,\"CHF\":0.94,\"CNY\":7.8312,\"SEK\":11.27,"
+            + "\"NOK\":11.5501,\"MXN\":18.6,\"SGD\":1.4523,\"HKD\":8.4791,\"NZD\":1.7902,\"XOF\":655.957}";
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private HttpServer provider;
+    private ExchangeRateService exchangeRateService;
+    private CurrencyConversionService service;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.history.enabled", "false");
+        System.setProperty("currency.hedge.enabled", "false");
+        System.setProperty("currency.rates.pivot", "EUR");
+
+        provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        provider.createContext("/", this::handle);
+        provider.start();
+
+        String url = "http://127.0.0.1:" + provider.getAddress().getPort();
+        exchangeRateService = new ExchangeRateService(HttpClientSettings.fromSystemProperties(),
+                url + "/latest?base=", url + "/v4/latest/");
+        service = new CurrencyConversionService(exchangeRateService, new ServiceMetrics(),
+                new ConversionSummaryLogger(0));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        service.close();
+        exchangeRateService.close();
+        provider.stop(0);
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void randomAmountsMatchBigDecimal() throws IOException {
+        Random random = new Random(SEED);
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertMatches(randomCurrency(random), randomCurrency(random), randomAmount(random));
+        }
+    }
+
+    @Test
+    public void boundaryAmountsMatchBigDecimal() throws IOException {
+        String[] amounts = {"0", "0.0000", "-0", "-0.00", "+1", ".5", "5.", "0.00005", "0.00004999",
+                "999999999999999999", "99999999999999.9999", "9223372036854775807", "0.000000000000000001",
+                "12345678901234567890.12", "1E+3", "1e-5", "00000000000000000001.5"};
+        for (String amount : amounts) {
+            for (Currency from : CURRENCIES) {
+                for (Currency to : CURRENCIES) {
+                    assertMatches(from, to, amount);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void negativeAmountsAreRejected() throws IOException {
+        for (String amount : new String[] {"-1", "-0.0001", "-999999999999999999", "-1E+3"}) {
+            try {
+                service.convertCurrency("EUR", "USD", amount);
+                fail("Montant négatif accepté: " + amount);
+            } catch (IllegalArgumentException expected) {
+                // Même refus que pour un montant BigDecimal
+            }
+        }
+    }
+
+    private void assertMatches(Currency from, Currency to, String amountText) throws IOException {
+        ConversionResult result = service.convertCurrency(from.getCode(), to.getCode(), amountText);
+        BigDecimal amount = new BigDecimal(amountText);
+        BigDecimal expected = amount.multiply(result.getExchangeRate()).setScale(4, RoundingMode.HALF_UP);
+        String message = amountText + " " + from + " -> " + to + " au taux " + result.getExchangeRate();
+        assertEquals(message, amount, result.getAmount());
+        // equals compare aussi l'échelle: même valeur non mise à l'échelle et même représentation JSON
+        assertEquals(message, expected, result.getConvertedAmount());
+        assertEquals(message, expected.toString(), result.getConvertedAmount().toString());
+    }
+
+    private static Currency randomCurrency(Random random) {
+        return CURRENCIES[random.nextInt(CURRENCIES.length)];
+    }
+
+    // Montants positifs de 1 à 22 chiffres: les plus longs passent par le repli BigDecimal
+    private static String randomAmount(Random random) {
+        int digits = 1 + random.nextInt(22);
+        StringBuilder text = new StringBuilder(digits + 1);
+        for (int i = 0; i < digits; i++) {
+            text.append((char) ('0' + random.nextInt(10)));
+        }
+        int fraction = random.nextInt(Math.min(digits, 12) + 1);
+        if (fraction > 0) {
+            text.insert(digits - fraction, '.');
+        }
+        return text.toString();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = ("{\"base\":\"EUR\",\"timestamp\":" + System.currentTimeMillis() / 1000
+                    + ",\"rates\":" + RATES + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
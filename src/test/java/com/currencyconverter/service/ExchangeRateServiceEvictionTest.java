@@ -0,0 +1,116 @@
+package com.currencyconverter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.currencyconverter.model.RateTable;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Bornes du cache abaissées: le nombre d'entrées et le poids estimé provoquent bien l'éviction
+public class ExchangeRateServiceEvictionTest {
+    private static final String[] PROPERTIES = {
+            "currency.snapshot.enabled", "currency.history.enabled", "currency.hedge.enabled", "currency.rates.mode",
+            "currency.cache.maxEntries", "currency.cache.maxWeightBytes"};
+
+    private HttpServer provider;
+    private String providerUrl;
+    private ExchangeRateService service;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.history.enabled", "false");
+        System.setProperty("currency.hedge.enabled", "false");
+        // Une table par devise source, sans clé épinglée
+        System.setProperty("currency.rates.mode", "direct");
+
+        provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        provider.createContext("/", this::handle);
+        provider.start();
+        providerUrl = "http://127.0.0.1:" + provider.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (service != null) {
+            service.close();
+        }
+        provider.stop(0);
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void entryLimitEvictsTables() throws IOException {
+        System.setProperty("currency.cache.maxEntries", "2");
+        service = newService();
+
+        service.getExchangeRates("USD");
+        service.getExchangeRates("EUR");
+        service.getExchangeRates("GBP");
+
+        assertEquals(2, service.getCacheEntryCount());
+        assertEquals(1, service.getMetrics().getCacheEvictions());
+        // La table qui vient d'être écrite n'est jamais la victime
+        assertTrue(service.getCacheStatus().stream().anyMatch(status -> status.getBaseCurrency().equals("GBP")));
+    }
+
+    @Test
+    public void weightLimitEvictsTables() throws IOException {
+        long entryWeight = loadedEntryWeight();
+        // Place pour deux tables, pas pour trois
+        System.setProperty("currency.cache.maxWeightBytes", String.valueOf(2 * entryWeight + entryWeight / 2));
+        service = newService();
+
+        service.getExchangeRates("USD");
+        service.getExchangeRates("EUR");
+        assertEquals(2 * entryWeight, service.getCacheWeightBytes());
+        service.getExchangeRates("GBP");
+
+        assertEquals(2, service.getCacheEntryCount());
+        assertEquals(2 * entryWeight, service.getCacheWeightBytes());
+        assertEquals(1, service.getMetrics().getCacheEvictions());
+    }
+
+    // Poids d'une entrée chargée, calculé à partir de la table réellement stockée
+    private long loadedEntryWeight() throws IOException {
+        try (ExchangeRateService probe = newService()) {
+            RateTable table = probe.getExchangeRates("USD");
+            long weight = probe.getCacheWeightBytes();
+            assertEquals(weight, probe.getCacheStatus().get(0).getWeightBytes());
+            assertTrue(weight > table.estimateHeapBytes());
+            return weight;
+        }
+    }
+
+    private ExchangeRateService newService() {
+        return new ExchangeRateService(HttpClientSettings.fromSystemProperties(),
+                providerUrl + "/latest?base=", providerUrl + "/v4/latest/");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String base = exchange.getRequestURI().getQuery().substring("base=".length());
+            byte[] body = ("{\"base\":\"" + base + "\",\"timestamp\":" + System.currentTimeMillis() / 1000
+                    + ",\"rates\":{\"EUR\":0.92,\"USD\":1,\"GBP\":0.79,\"JPY\":149.5}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.currencyconverter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Client HTTP partagé: connexions keep-alive réutilisées, délai de lecture converti en repli sur le fallback
+public class ExchangeRateServiceHttpClientTest {
+    private static final int SOCKET_TIMEOUT_MS = 300;
+    private static final String[] PROPERTIES = {
+            "currency.snapshot.enabled", "currency.history.enabled", "currency.hedge.enabled", "currency.rates.mode",
+            "currency.http.socketTimeoutMs"};
+
+    // Port client de chaque requête reçue: un port distinct par connexion TCP ouverte
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger primaryRequests = new AtomicInteger();
+    private final CountDownLatch releaseSlowPrimary = new CountDownLatch(1);
+    private volatile boolean primarySlow;
+    private HttpServer provider;
+    private ExchangeRateService service;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.history.enabled", "false");
+        System.setProperty("currency.hedge.enabled", "false");
+        // Une table (donc une requête) par devise source
+        System.setProperty("currency.rates.mode", "direct");
+        System.setProperty("currency.http.socketTimeoutMs", String.valueOf(SOCKET_TIMEOUT_MS));
+
+        provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        provider.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        provider.createContext("/latest", this::handlePrimary);
+        provider.createContext("/v4/latest/", exchange -> respond(exchange,
+                exchange.getRequestURI().getPath().substring("/v4/latest/".length())));
+        provider.start();
+
+        String url = "http://127.0.0.1:" + provider.getAddress().getPort();
+        service = new ExchangeRateService(HttpClientSettings.fromSystemProperties(),
+                url + "/latest?base=", url + "/v4/latest/");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        releaseSlowPrimary.countDown();
+        service.close();
+        provider.stop(0);
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void sequentialFetchesReuseOneConnection() throws IOException {
+        String[] bases = {"USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "SEK"};
+        for (String base : bases) {
+            service.getExchangeRates(base);
+        }
+
+        assertEquals(bases.length, primaryRequests.get());
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void socketTimeoutFallsBackInsteadOfHanging() throws IOException {
+        primarySlow = true;
+
+        long start = System.nanoTime();
+        service.getExchangeRates("EUR");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("Repli en " + elapsedMs + " ms", elapsedMs < SOCKET_TIMEOUT_MS + 2000);
+        assertEquals(1, service.getMetrics().getUpstreamFailures(RateSource.PRIMARY));
+        assertEquals(1, service.getMetrics().getUpstreamSuccesses(RateSource.FALLBACK));
+        assertEquals(RateSource.FALLBACK, service.getCacheStatus().get(0).getSource());
+    }
+
+    private void handlePrimary(HttpExchange exchange) throws IOException {
+        primaryRequests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        if (primarySlow) {
+            // Répond bien après le délai de lecture du client
+            try {
+                releaseSlowPrimary.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String query = exchange.getRequestURI().getQuery();
+        respond(exchange, query.substring("base=".length()));
+    }
+
+    private static void respond(HttpExchange exchange, String base) throws IOException {
+        try (exchange) {
+            byte[] body = ("{\"base\":\"" + base + "\",\"timestamp\":" + System.currentTimeMillis() / 1000
+                    + ",\"rates\":{\"EUR\":0.92,\"USD\":1,\"GBP\":0.79,\"JPY\":149.5}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
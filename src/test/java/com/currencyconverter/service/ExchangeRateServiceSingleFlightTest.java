@@ -0,0 +1,106 @@
+package com.currencyconverter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.currencyconverter.model.RateTable;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// N défauts de cache simultanés sur la même devise: une seule requête au fournisseur
+public class ExchangeRateServiceSingleFlightTest {
+    private static final int THREADS = 32;
+    private static final long PROVIDER_LATENCY_MS = 300;
+    private static final String[] PROPERTIES = {
+            "currency.snapshot.enabled", "currency.history.enabled", "currency.hedge.enabled"};
+
+    private final AtomicInteger providerRequests = new AtomicInteger();
+    private HttpServer provider;
+    private ExchangeRateService service;
+
+    @Before
+    public void setUp() throws IOException {
+        // Ni fichier d'instantané ni historique sur disque, et pas de requête couverte vers le fallback
+        System.setProperty("currency.snapshot.enabled", "false");
+        System.setProperty("currency.history.enabled", "false");
+        System.setProperty("currency.hedge.enabled", "false");
+
+        provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        provider.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        provider.createContext("/", this::handle);
+        provider.start();
+
+        String url = "http://127.0.0.1:" + provider.getAddress().getPort();
+        service = new ExchangeRateService(HttpClientSettings.fromSystemProperties(),
+                url + "/latest?base=", url + "/v4/latest/");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        service.close();
+        provider.stop(0);
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+    }
+
+    @Test
+    public void concurrentMissesShareOneUpstreamCall() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RateTable>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return service.getExchangeRates("EUR");
+                }));
+            }
+            start.countDown();
+
+            RateTable first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<RateTable> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, providerRequests.get());
+        assertEquals(1, service.getMetrics().getUpstreamSuccesses(RateSource.PRIMARY));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            providerRequests.incrementAndGet();
+            // Latence suffisante pour que tous les appelants arrivent pendant la récupération
+            try {
+                TimeUnit.MILLISECONDS.sleep(PROVIDER_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"base\":\"EUR\",\"timestamp\":" + System.currentTimeMillis() / 1000
+                    + ",\"rates\":{\"EUR\":1,\"USD\":1.0854,\"GBP\":0.8571,\"JPY\":161.42}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
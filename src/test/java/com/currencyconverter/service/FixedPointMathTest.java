@@ -0,0 +1,163 @@
+package com.currencyconverter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.Test;
+
+// Chemin rapide sur longs: identique à BigDecimal dès qu'il renvoie un résultat, y compris aux bornes
+public class FixedPointMathTest {
+    private static final long SEED = 0x5EED_F1C5L;
+    private static final int ITERATIONS = 500_000;
+    private static final BigInteger MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+    @Test
+    public void randomProductsMatchBigDecimal() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long amount = randomLong(random);
+            long rate = randomLong(random);
+            int amountScale = random.nextInt(FixedPointMath.MAX_DIGITS + 1);
+            int rateScale = random.nextInt(FixedPointMath.MAX_DIGITS + 1);
+            int scale = random.nextInt(4) == 0 ? random.nextInt(FixedPointMath.MAX_DIGITS + 1) : 4;
+            assertMatches(amount, amountScale, rate, rateScale, scale);
+        }
+    }
+
+    @Test
+    public void zeroAndSignsMatchBigDecimal() {
+        long[] values = {0, 1, -1, 5, -5, 15, -15, 25, -25, 49_999, -49_999, 50_000, -50_000, 99_999, -99_999};
+        for (long amount : values) {
+            for (long rate : values) {
+                for (int amountScale = 0; amountScale <= 6; amountScale++) {
+                    for (int rateScale = 0; rateScale <= 6; rateScale++) {
+                        assertMatches(amount, amountScale, rate, rateScale, 4);
+                        assertMatches(amount, amountScale, rate, rateScale, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void multiplicationOverflowBoundary() {
+        // 3037000499² tient dans un long, 3037000500² non
+        long root = 3_037_000_499L;
+        for (long delta = -2; delta <= 2; delta++) {
+            for (long sign : new long[] {1, -1}) {
+                assertMatches(sign * (root + delta), 2, root + delta, 6, 4);
+                assertMatches(sign * (root + delta), 8, root, 10, 4);
+            }
+        }
+        assertEquals(FixedPointMath.UNSUPPORTED, FixedPointMath.multiplyRounded(root + 1, 0, root + 1, 0, 0));
+        assertNotEquals(FixedPointMath.UNSUPPORTED, FixedPointMath.multiplyRounded(root, 0, root, 0, 0));
+        assertEquals(FixedPointMath.UNSUPPORTED, FixedPointMath.multiplyRounded(Long.MAX_VALUE, 0, 2, 0, 0));
+        assertEquals(FixedPointMath.UNSUPPORTED, FixedPointMath.multiplyRounded(Long.MIN_VALUE + 1, 0, 2, 0, 0));
+        assertMatches(Long.MAX_VALUE, 4, 1, 0, 4);
+        assertMatches(Long.MIN_VALUE + 1, 4, 1, 0, 4);
+        assertMatches(Long.MAX_VALUE, 18, -1, 18, 4);
+    }
+
+    @Test
+    public void rescalingOverflowBoundary() {
+        // Produit exact mais trop d'échelle à ajouter: 10^14 × 10^4 tient, 10^15 × 10^4 non
+        long limit = Long.MAX_VALUE / 10_000;
+        for (long delta = -2; delta <= 2; delta++) {
+            assertMatches(limit + delta, 0, 1, 0, 4);
+            assertMatches(-(limit + delta), 0, 1, 0, 4);
+        }
+        assertEquals(FixedPointMath.UNSUPPORTED, FixedPointMath.multiplyRounded(limit + 1, 0, 1, 0, 4));
+        assertMatches(1, 0, 1, 0, FixedPointMath.MAX_DIGITS);
+        assertMatches(10, 0, 1, 0, FixedPointMath.MAX_DIGITS);
+    }
+
+    @Test
+    public void droppedDigitsBoundary() {
+        // Jusqu'à 18 chiffres retirés par l'arrondi; au-delà, repli sur BigDecimal
+        assertMatches(Long.MAX_VALUE, 18, Long.MAX_VALUE / 1_000_000_000_000L, 4, 4);
+        assertMatches(999_999_999_999_999_999L, 18, 1, 4, 4);
+        assertMatches(5, 18, 1, 4, 4);
+        assertMatches(-5, 18, 1, 4, 4);
+        assertEquals(FixedPointMath.UNSUPPORTED, FixedPointMath.multiplyRounded(5, 18, 1, 5, 4));
+    }
+
+    @Test
+    public void randomDecimalTextsParseLikeBigDecimal() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < ITERATIONS; i++) {
+            String text = randomDecimalText(random);
+            int scale = FixedPointMath.parseScale(text);
+            if (scale < 0) {
+                continue;
+            }
+            BigDecimal expected = new BigDecimal(text);
+            BigDecimal actual = BigDecimal.valueOf(FixedPointMath.parseUnscaled(text), scale);
+            assertEquals(text, expected, actual);
+        }
+    }
+
+    @Test
+    public void textsOutsideTheFastPathAreRejected() {
+        String[] texts = {"", "+", "-", ".", "1e3", "1E+3", "1.2.3", "١٢", "12a", " 1", "1 ",
+                "1234567890123456789", "-0.1234567890123456789"};
+        for (String text : texts) {
+            assertEquals(text, -1, FixedPointMath.parseScale(text));
+        }
+        assertEquals(17, FixedPointMath.parseScale("0.12345678901234567"));
+        assertEquals(0, FixedPointMath.parseScale("-123456789012345678"));
+    }
+
+    static void assertMatches(long amount, int amountScale, long rate, int rateScale, int scale) {
+        BigDecimal expected = BigDecimal.valueOf(amount, amountScale)
+                .multiply(BigDecimal.valueOf(rate, rateScale))
+                .setScale(scale, RoundingMode.HALF_UP);
+        long actual = FixedPointMath.multiplyRounded(amount, amountScale, rate, rateScale, scale);
+        String message = amount + "e-" + amountScale + " × " + rate + "e-" + rateScale + " à l'échelle " + scale;
+        if (actual == FixedPointMath.UNSUPPORTED) {
+            // Repli autorisé uniquement si un calcul intermédiaire sort de la plage d'un long
+            BigInteger product = BigInteger.valueOf(amount).multiply(BigInteger.valueOf(rate));
+            int productScale = amountScale + rateScale;
+            BigInteger widest = productScale <= scale ? product.multiply(BigInteger.TEN.pow(scale - productScale)) : product;
+            boolean overflows = widest.compareTo(MIN_LONG) < 0 || widest.compareTo(MAX_LONG) > 0
+                    || productScale - scale > FixedPointMath.MAX_DIGITS
+                    || expected.unscaledValue().equals(MIN_LONG);
+            assertEquals(message, true, overflows);
+            return;
+        }
+        assertEquals(message, expected, BigDecimal.valueOf(actual, scale));
+    }
+
+    // Magnitudes réparties sur tous les ordres de grandeur, signe aléatoire
+    private static long randomLong(Random random) {
+        long magnitude = random.nextLong() >>> random.nextInt(64);
+        return random.nextBoolean() ? magnitude : -magnitude;
+    }
+
+    private static String randomDecimalText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int sign = random.nextInt(3);
+        if (sign == 1) {
+            text.append('-');
+        } else if (sign == 2) {
+            text.append('+');
+        }
+        int intDigits = random.nextInt(20);
+        for (int i = 0; i < intDigits; i++) {
+            text.append((char) ('0' + random.nextInt(10)));
+        }
+        if (random.nextBoolean()) {
+            text.append('.');
+            int fractionDigits = random.nextInt(20 - intDigits);
+            for (int i = 0; i < fractionDigits; i++) {
+                text.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+        return text.toString();
+    }
+}
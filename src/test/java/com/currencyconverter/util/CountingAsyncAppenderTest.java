@@ -0,0 +1,131 @@
+package com.currencyconverter.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+
+// Journalisation synchrone par défaut; en asynchrone, les événements abandonnés sont comptés et signalés
+public class CountingAsyncAppenderTest {
+    private final LoggerContext context = new LoggerContext();
+    private Path logPath;
+
+    @Before
+    public void setUp() throws Exception {
+        // Contexte isolé du contexte global: il lui faut son propre adaptateur MDC
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        logPath = Files.createTempDirectory("currency-logs");
+        System.setProperty("CURRENCY_CONVERTER_LOG_PATH", logPath.toString());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.stop();
+        System.clearProperty("CURRENCY_CONVERTER_LOG_PATH");
+        try (var files = Files.walk(logPath)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void defaultConfigurationIsSynchronous() throws Exception {
+        Logger root = configure("logback.xml");
+        assertNotNull(root.getAppender("STDOUT"));
+        assertNotNull(root.getAppender("FILE"));
+        assertNull(root.getAppender("ASYNC_FILE"));
+    }
+
+    @Test
+    public void productionConfigurationCountsDiscards() throws Exception {
+        Logger root = configure("logback-production.xml");
+        assertTrue(root.getAppender("ASYNC_STDOUT") instanceof CountingAsyncAppender);
+        assertTrue(root.getAppender("ASYNC_FILE") instanceof CountingAsyncAppender);
+    }
+
+    @Test
+    public void discardedEventsAreReported() throws Exception {
+        BlockingAppender target = new BlockingAppender();
+        target.setContext(context);
+        target.start();
+
+        CountingAsyncAppender async = new CountingAsyncAppender();
+        async.setContext(context);
+        async.setName("ASYNC_TEST");
+        async.setQueueSize(4);
+        async.setDiscardingThreshold(2);
+        async.setNeverBlock(true);
+        async.addAppender(target);
+        async.start();
+
+        Logger logger = context.getLogger("test");
+        logger.setAdditive(false);
+        logger.addAppender(async);
+
+        // L'appender cible est bloqué sur le premier événement: la file se remplit et les INFO sont abandonnés
+        for (int i = 0; i < 20; i++) {
+            logger.info("ligne {}", i);
+        }
+        long discarded = async.getDiscardedCount();
+        assertTrue(discarded > 0);
+
+        target.release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (async.getNumberOfElementsInQueue() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        logger.warn("après la saturation");
+        async.stop();
+
+        assertEquals(20 - discarded, target.events.stream().filter(e -> e.getLevel() == Level.INFO).count());
+        ILoggingEvent report = target.events.stream()
+                .filter(e -> e.getLoggerName().equals(CountingAsyncAppender.class.getName()))
+                .findFirst().orElseThrow();
+        assertEquals(Level.WARN, report.getLevel());
+        assertEquals(discarded + " événements de log abandonnés par l'appender ASYNC_TEST"
+                + " (file asynchrone saturée, " + discarded + " au total)", report.getFormattedMessage());
+        assertEquals("après la saturation", target.events.get(target.events.size() - 1).getFormattedMessage());
+    }
+
+    private Logger configure(String resource) throws Exception {
+        URL configuration = getClass().getClassLoader().getResource(resource);
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(configuration);
+        return context.getLogger(Logger.ROOT_LOGGER_NAME);
+    }
+
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+    }
+}